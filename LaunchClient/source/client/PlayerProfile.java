@@ -94,8 +94,8 @@ public final class PlayerProfile extends StreamObject {
                 IOHelper.readTexture(input, cloak); // Verify texture
             }
 
-            // Get digest of texture
-            digest = SecurityHelper.digest(DIGEST_ALGO, new URL(url));
+            // Get digest of texture (already fetched, don't download it again)
+            digest = SecurityHelper.digest(DIGEST_ALGO, texture);
         }
 
         @LauncherAPI
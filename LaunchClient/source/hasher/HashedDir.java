@@ -2,20 +2,31 @@ package launcher.hasher;
 
 import launcher.LauncherAPI;
 import launcher.helper.IOHelper;
+import launcher.helper.JVMHelper;
 import launcher.helper.VerifyHelper;
 import launcher.serialize.HInput;
 import launcher.serialize.HOutput;
 import launcher.serialize.stream.EnumSerializer;
 
 import java.io.IOException;
-import java.nio.file.FileVisitResult;
-import java.nio.file.Path;
-import java.nio.file.SimpleFileVisitor;
+import java.io.UncheckedIOException;
+import java.nio.file.*;
 import java.nio.file.attribute.BasicFileAttributes;
 import java.util.*;
 import java.util.Map.Entry;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
 
 public final class HashedDir extends HashedEntry {
+    @LauncherAPI
+    public static final int HASH_THREADS = VerifyHelper.verifyInt(
+            Integer.parseInt(System.getProperty("launcher.hashThreads",
+                    Integer.toString(JVMHelper.RUNTIME.availableProcessors()))),
+            VerifyHelper.POSITIVE, "launcher.hashThreads can't be <= 0");
+    private static final long FORK_FILE_SIZE = 256 * 1024; // Smaller files are hashed by dir task itself
+
+    // Instance
     private final Map<String, HashedEntry> map = new HashMap<>(32);
 
     @LauncherAPI
@@ -24,7 +35,28 @@ public final class HashedDir extends HashedEntry {
 
     @LauncherAPI
     public HashedDir(Path dir, FileNameMatcher matcher, boolean allowSymlinks, boolean digest) throws IOException {
-        IOHelper.walk(dir, new HashFileVisitor(dir, matcher, allowSymlinks, digest), true);
+        this(dir, matcher, allowSymlinks, digest, null);
+    }
+
+    @LauncherAPI
+    public HashedDir(Path dir, FileNameMatcher matcher, boolean allowSymlinks, boolean digest, Digester digester) throws IOException {
+        this(dir, matcher, allowSymlinks, digest, digester, HASH_THREADS > 1 ? PoolHolder.POOL : null);
+    }
+
+    @LauncherAPI
+    public HashedDir(Path dir, FileNameMatcher matcher, boolean allowSymlinks, boolean digest, Digester digester, ForkJoinPool pool) throws IOException {
+        if (pool == null) {
+            IOHelper.walk(dir, new HashFileVisitor(dir, matcher, allowSymlinks, digest, digester), true);
+            return;
+        }
+
+        // Hash in parallel, entries are still added in walk order
+        try {
+            pool.invoke(new DirTask(this, dir, Collections.emptyList(),
+                    new HashOptions(matcher, allowSymlinks, digest, digester), Collections.emptyList()));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
     }
 
     @LauncherAPI
@@ -183,21 +215,172 @@ public final class HashedDir extends HashedEntry {
         }
     }
 
+    // Lets caller reuse digests of unchanged files, e.g. from serverside index
+    @FunctionalInterface
+    public interface Digester {
+        @LauncherAPI
+        byte[] digest(Path file, BasicFileAttributes attrs) throws IOException;
+    }
+
+    private static HashedFile hashFile(Path file, BasicFileAttributes attrs, boolean digest, Digester digester) throws IOException {
+        return digest && digester != null ? new HashedFile(attrs.size(), digester.digest(file, attrs)) :
+                new HashedFile(file, attrs.size(), digest);
+    }
+
+    private static BasicFileAttributes readAttributes(Path path) throws IOException {
+        // Same as Files.walkFileTree() with FOLLOW_LINKS does
+        try {
+            return Files.readAttributes(path, BasicFileAttributes.class);
+        } catch (IOException e) {
+            return Files.readAttributes(path, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+        }
+    }
+
+    private static final class PoolHolder {
+        private static final ForkJoinPool POOL = new ForkJoinPool(HASH_THREADS);
+    }
+
+    private static final class HashOptions {
+        private final FileNameMatcher matcher;
+        private final boolean allowSymlinks;
+        private final boolean digest;
+        private final Digester digester;
+
+        private HashOptions(FileNameMatcher matcher, boolean allowSymlinks, boolean digest, Digester digester) {
+            this.matcher = matcher;
+            this.allowSymlinks = allowSymlinks;
+            this.digest = digest;
+            this.digester = digester;
+        }
+
+        private boolean shouldDigest(List<String> path) {
+            return digest && (matcher == null || matcher.shouldUpdate_1(path));
+        }
+    }
+
+    private static final class FileTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final Path file;
+        private final BasicFileAttributes attrs;
+        private final Digester digester;
+        private HashedFile result;
+
+        private FileTask(Path file, BasicFileAttributes attrs, Digester digester) {
+            this.file = file;
+            this.attrs = attrs;
+            this.digester = digester;
+        }
+
+        @Override
+        protected void compute() {
+            try {
+                result = hashFile(file, attrs, true, digester);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    private static final class DirTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final HashedDir target;
+        private final Path dir;
+        private final List<String> path;
+        private final HashOptions options;
+        private final List<Object> ancestors;
+
+        private DirTask(HashedDir target, Path dir, List<String> path, HashOptions options, List<Object> ancestors) {
+            this.target = target;
+            this.dir = dir;
+            this.path = path;
+            this.options = options;
+            this.ancestors = ancestors;
+        }
+
+        @Override
+        protected void compute() {
+            try {
+                computeDir();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        private void computeDir() throws IOException {
+            Object fileKey = readAttributes(dir).fileKey();
+            List<Object> childAncestors = ancestors;
+            if (fileKey != null) {
+                if (ancestors.contains(fileKey)) {
+                    throw new FileSystemLoopException(dir.toString());
+                }
+                childAncestors = new ArrayList<>(ancestors);
+                childAncestors.add(fileKey);
+            }
+
+            // Fork subdirs and large files in directory stream order
+            List<String> names = new ArrayList<>(32);
+            List<Object> entries = new ArrayList<>(32);
+            List<ForkJoinTask<?>> tasks = new ArrayList<>(8);
+            try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir)) {
+                for (Path child : stream) {
+                    BasicFileAttributes attrs = readAttributes(child);
+                    if (!options.allowSymlinks && attrs.isSymbolicLink()) {
+                        throw new SecurityException("Symlinks are not allowed");
+                    }
+
+                    // Add child entry
+                    String name = IOHelper.getFileName(child);
+                    List<String> childPath = new ArrayList<>(path.size() + 1);
+                    childPath.addAll(path);
+                    childPath.add(name);
+                    names.add(name);
+                    if (attrs.isDirectory()) {
+                        HashedDir childDir = new HashedDir();
+                        tasks.add(new DirTask(childDir, child, childPath, options, childAncestors).fork());
+                        entries.add(childDir);
+                        continue;
+                    }
+                    boolean doDigest = options.shouldDigest(childPath);
+                    if (doDigest && attrs.size() >= FORK_FILE_SIZE) {
+                        FileTask task = new FileTask(child, attrs, options.digester);
+                        tasks.add(task.fork());
+                        entries.add(task);
+                        continue;
+                    }
+                    entries.add(hashFile(child, attrs, doDigest, options.digester));
+                }
+            }
+
+            // Wait for forked tasks and fill map
+            for (ForkJoinTask<?> task : tasks) {
+                task.join();
+            }
+            for (int i = 0; i < names.size(); i++) {
+                Object entry = entries.get(i);
+                target.map.put(names.get(i), entry instanceof FileTask ? ((FileTask) entry).result : (HashedEntry) entry);
+            }
+        }
+    }
+
     private final class HashFileVisitor extends SimpleFileVisitor<Path> {
         private final Path dir;
         private final FileNameMatcher matcher;
         private final boolean allowSymlinks;
         private final boolean digest;
+        private final Digester digester;
         private final Deque<String> path = new LinkedList<>();
         private final Deque<HashedDir> stack = new LinkedList<>();
         // State
         private HashedDir current = HashedDir.this;
 
-        private HashFileVisitor(Path dir, FileNameMatcher matcher, boolean allowSymlinks, boolean digest) {
+        private HashFileVisitor(Path dir, FileNameMatcher matcher, boolean allowSymlinks, boolean digest, Digester digester) {
             this.dir = dir;
             this.matcher = matcher;
             this.allowSymlinks = allowSymlinks;
             this.digest = digest;
+            this.digester = digester;
         }
 
         @Override
@@ -248,7 +431,7 @@ public final class HashedDir extends HashedEntry {
             // Add file (may be unhashed, if exclusion)
             path.add(IOHelper.getFileName(file));
             boolean doDigest = digest && (matcher == null || matcher.shouldUpdate_1(path));
-            current.map.put(path.removeLast(), new HashedFile(file, attrs.size(), doDigest));
+            current.map.put(path.removeLast(), hashFile(file, attrs, doDigest, digester));
             return super.visitFile(file, attrs);
         }
     }
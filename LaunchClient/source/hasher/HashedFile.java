@@ -55,6 +55,11 @@ public final class HashedFile extends HashedEntry {
         }
     }
 
+    @LauncherAPI
+    public byte[] getDigest() {
+        return digest == null ? null : digest.clone();
+    }
+
     @LauncherAPI
     public boolean isSame(HashedFile o) {
         return size == o.size && (digest == null || o.digest == null || Arrays.equals(digest, o.digest));
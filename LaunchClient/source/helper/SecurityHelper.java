@@ -2,7 +2,9 @@ package launcher.helper;
 
 import launcher.LauncherAPI;
 
+import javax.crypto.BadPaddingException;
 import javax.crypto.Cipher;
+import javax.crypto.IllegalBlockSizeException;
 import javax.crypto.NoSuchPaddingException;
 import java.io.IOException;
 import java.io.InputStream;
@@ -84,6 +86,18 @@ public final class SecurityHelper {
     private static final char[] VOWELS = {'e', 'u', 'i', 'o', 'a'};
     private static final char[] CONS = {'r', 't', 'p', 's', 'd', 'f', 'g', 'h', 'k', 'l', 'c', 'v', 'b', 'n', 'm'};
 
+    // Per-thread initialized engines, borrowed for one operation so failed or reentrant calls never see dirty state
+    private static final ThreadLocal<MessageDigest[]> DIGESTS = ThreadLocal.withInitial(() -> new MessageDigest[DigestAlgorithm.values().length]);
+    private static final ThreadLocal<EngineSlot<Cipher>> DECRYPT_CIPHERS = ThreadLocal.withInitial(EngineSlot::new);
+    private static final ThreadLocal<EngineSlot<Signature>> SIGN_SIGNATURES = ThreadLocal.withInitial(EngineSlot::new);
+    private static final ThreadLocal<EngineSlot<Signature>> VERIFY_SIGNATURES = ThreadLocal.withInitial(EngineSlot::new);
+
+    // Per-thread DRBGs seeded once from the system source, avoids global NativePRNG lock and per-call seeding
+    private static final SecureRandom SEED_RANDOM = new SecureRandom();
+    private static final ThreadLocal<SecureRandom> THREAD_RANDOMS = ThreadLocal.withInitial(SecurityHelper::newThreadRandom);
+    private static final String THREAD_RANDOM_ALGO = "SHA1PRNG";
+    private static final int THREAD_RANDOM_SEED_LENGTH = 32;
+
     private SecurityHelper() {
     }
 
@@ -108,17 +122,36 @@ public final class SecurityHelper {
 
     @LauncherAPI
     public static byte[] digest(DigestAlgorithm algo, byte[] bytes) {
-        return newDigest(algo).digest(bytes);
+        MessageDigest digest = borrowDigest(algo);
+        byte[] result = digest.digest(bytes);
+        releaseDigest(algo, digest);
+        return result;
     }
 
     @LauncherAPI
     public static byte[] digest(DigestAlgorithm algo, InputStream input) throws IOException {
         byte[] buffer = IOHelper.newBuffer();
-        MessageDigest digest = newDigest(algo);
+        MessageDigest digest = borrowDigest(algo);
         for (int length = input.read(buffer); length != -1; length = input.read(buffer)) {
             digest.update(buffer, 0, length);
         }
-        return digest.digest();
+        byte[] result = digest.digest();
+        releaseDigest(algo, digest);
+        return result;
+    }
+
+    @LauncherAPI
+    public static byte[] decrypt(byte[] bytes, RSAPrivateKey key) throws IllegalBlockSizeException, BadPaddingException {
+        EngineSlot<Cipher> slot = DECRYPT_CIPHERS.get();
+        Cipher cipher = slot.borrow(key);
+        if (cipher == null) {
+            cipher = newRSADecryptCipher(key);
+        }
+
+        // doFinal() resets cipher to its initialized state
+        byte[] result = cipher.doFinal(bytes);
+        slot.release(key, cipher);
+        return result;
     }
 
     @LauncherAPI
@@ -177,20 +210,24 @@ public final class SecurityHelper {
 
     @LauncherAPI
     public static boolean isValidSign_1(byte[] bytes, byte[] sign, RSAPublicKey publicKey) throws SignatureException {
-        Signature signature = newRSAVerifySignature(publicKey);
+        Signature signature = borrowVerifySignature(publicKey);
         try {
             signature.update(bytes);
         } catch (SignatureException e) {
             throw new InternalError(e);
         }
-        return signature.verify(sign);
+        boolean valid = signature.verify(sign);
+        VERIFY_SIGNATURES.get().release(publicKey, signature);
+        return valid;
     }
 
     @LauncherAPI
     public static boolean isValidSign_1(InputStream input, byte[] sign, RSAPublicKey publicKey) throws IOException, SignatureException {
-        Signature signature = newRSAVerifySignature(publicKey);
+        Signature signature = borrowVerifySignature(publicKey);
         updateSignature(input, signature);
-        return signature.verify(sign);
+        boolean valid = signature.verify(sign);
+        VERIFY_SIGNATURES.get().release(publicKey, signature);
+        return valid;
     }
 
     @LauncherAPI
@@ -254,6 +291,11 @@ public final class SecurityHelper {
         return new SecureRandom();
     }
 
+    @LauncherAPI
+    public static SecureRandom threadRandom() {
+        return THREAD_RANDOMS.get(); // Don't pass to other threads
+    }
+
     @LauncherAPI
     public static byte[] randomBytes(Random random, int length) {
         byte[] bytes = new byte[length];
@@ -263,7 +305,7 @@ public final class SecurityHelper {
 
     @LauncherAPI
     public static byte[] randomBytes(int length) {
-        return randomBytes(newRandom(), length);
+        return randomBytes(threadRandom(), length);
     }
 
     @LauncherAPI
@@ -273,7 +315,7 @@ public final class SecurityHelper {
 
     @LauncherAPI
     public static String randomStringToken() {
-        return randomStringToken(newRandom());
+        return randomStringToken(threadRandom());
     }
 
     @LauncherAPI
@@ -283,7 +325,7 @@ public final class SecurityHelper {
 
     @LauncherAPI
     public static byte[] randomToken() {
-        return randomToken(newRandom());
+        return randomToken(threadRandom());
     }
 
     @LauncherAPI
@@ -350,29 +392,35 @@ public final class SecurityHelper {
 
     @LauncherAPI
     public static String randomUsername() {
-        return randomUsername(newRandom());
+        return randomUsername(threadRandom());
     }
 
     @LauncherAPI
     public static byte[] sign(InputStream input, RSAPrivateKey privateKey) throws IOException {
-        Signature signature = newRSASignSignature(privateKey);
+        Signature signature = borrowSignSignature(privateKey);
         updateSignature(input, signature);
+        byte[] result;
         try {
-            return signature.sign();
+            result = signature.sign();
         } catch (SignatureException e) {
             throw new InternalError(e);
         }
+        SIGN_SIGNATURES.get().release(privateKey, signature);
+        return result;
     }
 
     @LauncherAPI
     public static byte[] sign(byte[] bytes, RSAPrivateKey privateKey) {
-        Signature signature = newRSASignSignature(privateKey);
+        Signature signature = borrowSignSignature(privateKey);
+        byte[] result;
         try {
             signature.update(bytes);
-            return signature.sign();
+            result = signature.sign();
         } catch (SignatureException e) {
             throw new InternalError(e);
         }
+        SIGN_SIGNATURES.get().release(privateKey, signature);
+        return result;
     }
 
     @LauncherAPI
@@ -446,6 +494,46 @@ public final class SecurityHelper {
         return VerifyHelper.verify_1(token, SecurityHelper::isValidToken, String.format("Invalid token: '%s'", token));
     }
 
+    private static SecureRandom newThreadRandom() {
+        byte[] seed;
+        synchronized (SEED_RANDOM) {
+            seed = randomBytes(SEED_RANDOM, THREAD_RANDOM_SEED_LENGTH);
+        }
+
+        // Seeding before first use replaces self-seeding, so it never touches entropy source again
+        try {
+            SecureRandom random = SecureRandom.getInstance(THREAD_RANDOM_ALGO);
+            random.setSeed(seed);
+            return random;
+        } catch (NoSuchAlgorithmException ignored) {
+            return new SecureRandom(seed);
+        }
+    }
+
+    private static MessageDigest borrowDigest(DigestAlgorithm algo) {
+        MessageDigest[] digests = DIGESTS.get();
+        MessageDigest digest = digests[algo.ordinal()];
+        if (digest == null) {
+            return newDigest(algo);
+        }
+        digests[algo.ordinal()] = null;
+        return digest;
+    }
+
+    private static void releaseDigest(DigestAlgorithm algo, MessageDigest digest) {
+        DIGESTS.get()[algo.ordinal()] = digest; // digest() resets it
+    }
+
+    private static Signature borrowSignSignature(RSAPrivateKey key) {
+        Signature signature = SIGN_SIGNATURES.get().borrow(key);
+        return signature == null ? newRSASignSignature(key) : signature;
+    }
+
+    private static Signature borrowVerifySignature(RSAPublicKey key) {
+        Signature signature = VERIFY_SIGNATURES.get().borrow(key);
+        return signature == null ? newRSAVerifySignature(key) : signature;
+    }
+
     private static Cipher newCipher(String algo) {
         // IDK Why, but collapsing catch blocks makes ProGuard generate invalid stackmap
         try {
@@ -494,6 +582,22 @@ public final class SecurityHelper {
         }
     }
 
+    private static final class EngineSlot<T> {
+        private Object key;
+        private T engine;
+
+        private T borrow(Object key) {
+            T borrowed = this.key == key ? engine : null;
+            engine = null;
+            return borrowed;
+        }
+
+        private void release(Object key, T engine) {
+            this.key = key;
+            this.engine = engine;
+        }
+    }
+
     @LauncherAPI
     public enum DigestAlgorithm {
         PLAIN("plain", -1), MD5("MD5", 128), SHA1("SHA-1", 160), SHA224("SHA-224", 224), SHA256("SHA-256", 256), SHA512("SHA-512", 512);
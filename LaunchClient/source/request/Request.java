@@ -47,12 +47,17 @@ public abstract class Request<R> {
             throw new IllegalStateException("Request already started");
         }
 
+        // Reuse persistent session if enabled
+        if (SessionManager.ENABLED && getType().isSessionable()) {
+            return SessionManager.request(this);
+        }
+
         // Make request to LaunchServer
         try (Socket socket = IOHelper.newSocket()) {
             socket.connect(IOHelper.resolve(config.address));
             try (HInput input = new HInput(IOHelper.newBufferedInputStream(socket.getInputStream()));
                  HOutput output = new HOutput(IOHelper.newBufferedOutStream(socket.getOutputStream()))) {
-                writeHandshake(input, output);
+                writeHandshake(config, getType(), input, output);
                 return requestDo(input, output);
             }
         }
@@ -66,11 +71,11 @@ public abstract class Request<R> {
         }
     }
 
-    private void writeHandshake(HInput input, HOutput output) throws IOException {
+    /*package*/ static void writeHandshake(ConfigBin config, Type type, HInput input, HOutput output) throws IOException {
         // Write handshake
         output.writeInt(CommonHelper.PROTOCOL_MAGIC);
         output.writeBigInteger(config.publicKey.getModulus(), SecurityHelper.RSA_KEY_LENGTH + 1);
-        EnumSerializer.write(output, getType());
+        EnumSerializer.write(output, type);
         output.flush();
 
         // Verify is accepted
@@ -85,6 +90,7 @@ public abstract class Request<R> {
         LAUNCHER(1), UPDATE(2), UPDATE_LIST(3), // Update requests
         AUTH(4), JOIN_SERVER(5), CHECK_SERVER(6), // Auth requests
         PROFILE_BY_USERNAME(7), PROFILE_BY_UUID(8), BATCH_PROFILE_BY_USERNAME(9), // Profile requests
+        SESSION(10), // Persistent connection with tagged requests
         CUSTOM(255); // Custom requests
         private static final EnumSerializer<Type> SERIALIZER = new EnumSerializer<>(Type.class);
         private final int n;
@@ -102,5 +108,11 @@ public abstract class Request<R> {
         public int getNumber() {
             return n;
         }
+
+        @LauncherAPI
+        public boolean isSessionable() {
+            // Launcher and update responses are streamed till the end of connection
+            return this != LAUNCHER && this != UPDATE && this != SESSION;
+        }
     }
 }
@@ -0,0 +1,191 @@
+package launcher.request;
+
+import launcher.ConfigBin;
+import launcher.LauncherAPI;
+import launcher.helper.IOHelper;
+import launcher.helper.VerifyHelper;
+import launcher.request.Request.Type;
+import launcher.serialize.HInput;
+import launcher.serialize.HOutput;
+import launcher.serialize.stream.EnumSerializer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.util.Deque;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+
+public final class SessionManager {
+    @LauncherAPI
+    public static final boolean ENABLED = Boolean.getBoolean("launcher.requestSessions");
+
+    // Idle session should be closed by us before serverside sessionIdleTimeout (3000 ms by default)
+    @LauncherAPI
+    public static final int IDLE_TIMEOUT = VerifyHelper.verifyInt(
+            Integer.parseInt(System.getProperty("launcher.sessionIdleTimeout", Integer.toString(1000))),
+            VerifyHelper.POSITIVE, "launcher.sessionIdleTimeout can't be <= 0");
+    @LauncherAPI
+    public static final int MAX_IDLE_SESSIONS = VerifyHelper.verifyInt(
+            Integer.parseInt(System.getProperty("launcher.maxIdleSessions", Integer.toString(4))),
+            VerifyHelper.NOT_NEGATIVE, "launcher.maxIdleSessions can't be < 0");
+
+    private static final Map<ConfigBin, Deque<Session>> IDLE_SESSIONS = new ConcurrentHashMap<>(2);
+
+    private SessionManager() {
+    }
+
+    @LauncherAPI
+    public static void closeIdle() {
+        for (Deque<Session> sessions : IDLE_SESSIONS.values()) {
+            for (Session session = sessions.pollFirst(); session != null; session = sessions.pollFirst()) {
+                IOHelper.close(session);
+            }
+        }
+    }
+
+    /*package*/ static <R> R request(Request<R> request) throws Throwable {
+        Session session = acquire(request.config);
+        int tag = -1;
+        if (session != null) {
+            try {
+                tag = session.begin(request);
+            } catch (IOException ignored) {
+                // Stale session (closed by serverside), request body wasn't sent yet, so retry on a new one
+                IOHelper.close(session);
+                session = null;
+            }
+        }
+
+        // Once request was sent it may be already handled, so never retry after that
+        if (session == null) {
+            session = Session.open(request.config);
+            try {
+                tag = session.begin(request);
+            } catch (IOException e) {
+                IOHelper.close(session);
+                throw e;
+            }
+        }
+        return request(session, request, tag);
+    }
+
+    private static <R> R request(Session session, Request<R> request, int tag) throws Throwable {
+        R result;
+        try {
+            result = session.finish(request, tag);
+        } catch (Throwable exc) {
+            IOHelper.close(session); // Stream state is unknown after error
+            throw exc;
+        }
+        release(session);
+        return result;
+    }
+
+    private static Session acquire(ConfigBin config) {
+        Deque<Session> sessions = IDLE_SESSIONS.get(config);
+        if (sessions == null) {
+            return null;
+        }
+
+        // Most recently used first, drop expired ones
+        long now = System.currentTimeMillis();
+        for (Session session = sessions.pollFirst(); session != null; session = sessions.pollFirst()) {
+            if (now - session.lastUsed < IDLE_TIMEOUT && session.isAlive()) {
+                return session;
+            }
+            IOHelper.close(session);
+        }
+        return null;
+    }
+
+    private static void release(Session session) {
+        Deque<Session> sessions = IDLE_SESSIONS.computeIfAbsent(session.config, c -> new ConcurrentLinkedDeque<>());
+        if (sessions.size() >= MAX_IDLE_SESSIONS) {
+            IOHelper.close(session);
+            return;
+        }
+        sessions.offerFirst(session);
+    }
+
+    private static final class Session implements AutoCloseable {
+        private final ConfigBin config;
+        private final Socket socket;
+        private final InputStream stream;
+        private final HInput input;
+        private final HOutput output;
+
+        // State
+        private int nextTag;
+        private long lastUsed = System.currentTimeMillis();
+
+        private Session(ConfigBin config, Socket socket) throws IOException {
+            this.config = config;
+            this.socket = socket;
+            stream = IOHelper.newBufferedInputStream(socket.getInputStream());
+            input = new HInput(stream);
+            output = new HOutput(IOHelper.newBufferedOutStream(socket.getOutputStream()));
+        }
+
+        private static Session open(ConfigBin config) throws IOException {
+            Socket socket = IOHelper.newSocket();
+            try {
+                socket.setTcpNoDelay(true); // Small tagged frames, don't wait for ACK
+                socket.connect(IOHelper.resolve(config.address));
+                Session session = new Session(config, socket);
+                Request.writeHandshake(config, Type.SESSION, session.input, session.output);
+                return session;
+            } catch (IOException e) {
+                IOHelper.close(socket);
+                throw e;
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            socket.close();
+        }
+
+        // Write to socket closed by peer usually succeeds, so check for EOF before reuse
+        private boolean isAlive() {
+            try {
+                if (stream.available() > 0) {
+                    return false; // Unexpected data between requests
+                }
+                socket.setSoTimeout(1);
+                try {
+                    stream.read(); // EOF or unexpected data
+                    return false;
+                } catch (SocketTimeoutException ignored) {
+                    return true; // Nothing to read, peer is still there
+                } finally {
+                    socket.setSoTimeout(IOHelper.SOCKET_TIMEOUT);
+                }
+            } catch (IOException ignored) {
+                return false;
+            }
+        }
+
+        private int begin(Request<?> request) throws IOException {
+            int tag = nextTag++;
+            output.writeVarInt(tag);
+            EnumSerializer.write(output, request.getType());
+            output.flush();
+            return tag;
+        }
+
+        private <R> R finish(Request<R> request, int tag) throws Throwable {
+            R result = request.requestDo(input, output);
+
+            // Verify response frame
+            int responseTag = input.readVarInt();
+            if (responseTag != tag) {
+                throw new IOException(String.format("Session tag mismatch: %d != %d", responseTag, tag));
+            }
+            lastUsed = System.currentTimeMillis();
+            return result;
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package launchserver;
+
+import launchserver.auth.limiter.AuthLimiter;
+
+public final class AuthLimiterBench
+{
+    private AuthLimiterBench()
+    {
+    }
+
+    // Usage: AuthLimiterBench [keys] [windowMillis]
+    public static void main(String... args) throws Throwable
+    {
+        int keys = args.length > 0 ? Integer.parseInt(args[0]) : 2_000_000;
+        int window = args.length > 1 ? Integer.parseInt(args[1]) : 1000;
+        try (AuthLimiter limiter = new AuthLimiter(3, window))
+        {
+            // Unique IPs, like rotating proxies
+            long start = System.nanoTime();
+            for (int i = 0; i < keys; i++)
+            {
+                limiter.isLimit(toIP(i));
+            }
+            long elapsed = System.nanoTime() - start;
+            System.out.printf("isLimit: %d keys, %.1f ns/op, size=%d%n", keys, (double) elapsed / keys, limiter.size());
+
+            // Both windows are over, so eviction must drop everything
+            Thread.sleep(2L * window);
+            start = System.nanoTime();
+            limiter.expireIdle();
+            elapsed = System.nanoTime() - start;
+            System.out.printf("expireIdle: %.1f ms, size=%d%n", elapsed / 1.0e6D, limiter.size());
+            if (limiter.size() != 0)
+            {
+                throw new AssertionError("Idle entries weren't evicted");
+            }
+        }
+    }
+
+    private static String toIP(int i)
+    {
+        return (10 + (i >>> 24 & 0x7F)) + "." + (i >>> 16 & 0xFF) + '.' + (i >>> 8 & 0xFF) + '.' + (i & 0xFF);
+    }
+}
@@ -0,0 +1,66 @@
+package launchserver;
+
+import launchserver.auth.provider.BcryptVerifier;
+import org.mindrot.jbcrypt.BCrypt;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.LongAdder;
+
+public final class BcryptBench
+{
+    private BcryptBench()
+    {
+    }
+
+    // Usage: BcryptBench [callerThreads] [secondsPerCost]
+    public static void main(String... args) throws Throwable
+    {
+        int threads = args.length > 0 ? Integer.parseInt(args[0]) : BcryptVerifier.THREADS * 4;
+        long millis = (args.length > 1 ? Integer.parseInt(args[1]) : 3) * 1000L;
+        for (int cost : new int[] { 8, 10, 12 })
+        {
+            String hash = BCrypt.hashpw("password", BCrypt.gensalt(cost));
+
+            // Inline on caller thread, like before
+            long ops = 0;
+            long start = System.nanoTime();
+            long end = start + millis * 1000000L;
+            while (System.nanoTime() < end)
+            {
+                BCrypt.checkpw("password", hash);
+                ops++;
+            }
+            System.out.printf("cost %d inline: %.1f checks/s%n", cost, ops * 1.0e9D / (System.nanoTime() - start));
+
+            // Many logins at once through the verifier
+            LongAdder checks = new LongAdder();
+            LongAdder rejected = new LongAdder();
+            CountDownLatch done = new CountDownLatch(threads);
+            long deadline = System.nanoTime() + millis * 1000000L;
+            start = System.nanoTime();
+            for (int i = 0; i < threads; i++)
+            {
+                new Thread(() ->
+                {
+                    while (System.nanoTime() < deadline)
+                    {
+                        try
+                        {
+                            BcryptVerifier.checkpw("password", hash);
+                            checks.increment();
+                        }
+                        catch (Exception ignored)
+                        {
+                            rejected.increment(); // Queue is full
+                        }
+                    }
+                    done.countDown();
+                }).start();
+            }
+            done.await();
+            System.out.printf("cost %d verifier, %d callers: %.1f checks/s, %d rejected%n", cost, threads,
+                    checks.sum() * 1.0e9D / (System.nanoTime() - start), rejected.sum());
+            System.out.println("  " + BcryptVerifier.getStats());
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package launchserver;
+
+import launcher.helper.SecurityHelper;
+
+import java.security.KeyPair;
+import java.security.Signature;
+import java.security.interfaces.RSAPrivateKey;
+import java.security.interfaces.RSAPublicKey;
+import javax.crypto.Cipher;
+
+public final class CryptoBench
+{
+    private CryptoBench()
+    {
+    }
+
+    // Usage: CryptoBench [secondsPerCase]
+    public static void main(String... args) throws Throwable
+    {
+        long millis = (args.length > 0 ? Integer.parseInt(args[0]) : 3) * 1000L;
+        KeyPair pair = SecurityHelper.genRSAKeyPair();
+        RSAPublicKey publicKey = (RSAPublicKey) pair.getPublic();
+        RSAPrivateKey privateKey = (RSAPrivateKey) pair.getPrivate();
+        byte[] password = SecurityHelper.newRSAEncryptCipher(publicKey).doFinal("password".getBytes("UTF-8"));
+        byte[] data = SecurityHelper.randomBytes(1024);
+        byte[] sign = SecurityHelper.sign(data, privateKey);
+
+        // Fresh engine per call, as before pooling
+        run("decrypt fresh", millis, () -> SecurityHelper.newRSADecryptCipher(privateKey).doFinal(password));
+        run("decrypt pooled", millis, () -> SecurityHelper.decrypt(password, privateKey));
+        run("sign fresh", millis, () ->
+        {
+            Signature signature = SecurityHelper.newRSASignSignature(privateKey);
+            signature.update(data);
+            signature.sign();
+        });
+        run("sign pooled", millis, () -> SecurityHelper.sign(data, privateKey));
+        run("verify fresh", millis, () ->
+        {
+            Signature signature = SecurityHelper.newRSAVerifySignature(publicKey);
+            signature.update(data);
+            signature.verify(sign);
+        });
+        run("verify pooled", millis, () -> SecurityHelper.verifySign(data, sign, publicKey));
+    }
+
+    private static void run(String name, long millis, Case action) throws Exception
+    {
+        // Warm up, then measure
+        for (int i = 0; i < 200; i++)
+        {
+            action.run();
+        }
+        long ops = 0;
+        long start = System.nanoTime();
+        long end = start + millis * 1000000L;
+        while (System.nanoTime() < end)
+        {
+            action.run();
+            ops++;
+        }
+        System.out.printf("%s: %.1f us/op%n", name, (System.nanoTime() - start) / 1000.0D / ops);
+    }
+
+    @FunctionalInterface
+    private interface Case
+    {
+        void run() throws Exception;
+    }
+}
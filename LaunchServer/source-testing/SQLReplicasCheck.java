@@ -0,0 +1,141 @@
+package launchserver;
+
+import launcher.serialize.config.TextConfigReader;
+import launchserver.auth.SQLReplicas;
+import launchserver.auth.SQLSourceConfig;
+
+import java.io.StringReader;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+public final class SQLReplicasCheck
+{
+    private SQLReplicasCheck()
+    {
+    }
+
+    // Routing and fallback of SQLReplicas against stub sources, no database needed
+    public static void main(String... args) throws Throwable
+    {
+        StubSource primary = new StubSource("primary");
+        StubSource replica = new StubSource("replica");
+        String config = "replicas: [ {} ]; replicaLagQuery: \"lag\"; replicaMaxLag: 10; replicaCheckInterval: 300;";
+        try (SQLReplicas replicas = new SQLReplicas("checkPool", TextConfigReader.read(new StringReader(config), true),
+                (name, block) -> replica))
+        {
+            SQLReplicas.Query<String> query = Object::toString; // Name of source that served it
+            // Healthy replica serves reads, missing part goes to primary
+            Thread.sleep(700L);
+            expect("healthy replica", replicas.read(primary, query, r -> null), "replica");
+            expect("missing on replica", replicas.read(primary, query, r -> c -> r + "+" + c), "replica+primary");
+
+            // Lagging replica is skipped after next check
+            replica.lag = 30L;
+            Thread.sleep(700L);
+            expect("lagging replica", replicas.read(primary, query, r -> null), "primary");
+
+            // Replication stopped (NULL lag)
+            replica.lag = null;
+            Thread.sleep(700L);
+            expect("replication stopped", replicas.read(primary, query, r -> null), "primary");
+
+            // Caught up again, then replica fails on query
+            replica.lag = 0L;
+            Thread.sleep(700L);
+            expect("caught up", replicas.read(primary, query, r -> null), "replica");
+            replica.failing = true;
+            expect("replica error", replicas.read(primary, query, r -> null), "primary");
+            replica.failing = false;
+            expect("marked down until check", replicas.read(primary, query, r -> null), "primary");
+            Thread.sleep(700L);
+            expect("back after check", replicas.read(primary, query, r -> null), "replica");
+        }
+        System.out.println("All checks passed");
+    }
+
+    private static void expect(String name, String actual, String expected)
+    {
+        System.out.printf("%s: %s%n", name, actual);
+        if (!expected.equals(actual))
+        {
+            throw new AssertionError(String.format("%s: expected '%s'", name, expected));
+        }
+    }
+
+    private static final class StubSource implements SQLSourceConfig
+    {
+        private final String name;
+        private volatile Long lag = 0L;
+        private volatile boolean failing;
+
+        private StubSource(String name)
+        {
+            this.name = name;
+        }
+
+        @Override
+        public void close()
+        {
+            // Do nothing
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException
+        {
+            if (failing)
+            {
+                throw new SQLException(name + " is failing");
+            }
+            ResultSet set = proxy(ResultSet.class, (method, methodArgs) ->
+            {
+                switch (method)
+                {
+                    case "next":
+                        return true;
+                    case "getObject":
+                        return lag;
+                    case "getLong":
+                        return lag == null ? 0L : lag;
+                    default:
+                        return null;
+                }
+            });
+            Statement statement = proxy(Statement.class, (method, methodArgs) -> "executeQuery".equals(method) ? set : null);
+            return proxy(Connection.class, (method, methodArgs) ->
+            {
+                switch (method)
+                {
+                    case "isValid":
+                        return true;
+                    case "createStatement":
+                        return statement;
+                    case "toString":
+                        return name;
+                    default:
+                        return null;
+                }
+            });
+        }
+
+        @Override
+        public <T> T read(SQLReplicas.Query<T> query, SQLReplicas.Remainder<T> remainder)
+        {
+            throw new UnsupportedOperationException("Stub primary is passed to SQLReplicas directly");
+        }
+
+        private static <T> T proxy(Class<T> type, Handler handler)
+        {
+            return type.cast(Proxy.newProxyInstance(SQLReplicasCheck.class.getClassLoader(), new Class<?>[] { type },
+                    (proxy, method, methodArgs) -> handler.invoke(method.getName(), methodArgs)));
+        }
+    }
+
+    @FunctionalInterface
+    private interface Handler
+    {
+        Object invoke(String method, Object[] args);
+    }
+}
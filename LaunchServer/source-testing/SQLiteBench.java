@@ -0,0 +1,103 @@
+package launchserver;
+
+import launcher.helper.SecurityHelper;
+import launcher.serialize.config.TextConfigReader;
+import launchserver.auth.SQLiteSourceConfig;
+import launchserver.auth.handler.AuthHandler;
+
+import java.io.StringReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+public final class SQLiteBench
+{
+    private SQLiteBench()
+    {
+    }
+
+    // Usage: SQLiteBench [dbFile] [users] [threads] [seconds], needs sqlite-jdbc in classpath
+    public static void main(String... args) throws Throwable
+    {
+        Path file = Paths.get(args.length > 0 ? args[0] : "sqlite-bench.db");
+        int users = args.length > 1 ? Integer.parseInt(args[1]) : 10000;
+        int threads = args.length > 2 ? Integer.parseInt(args[2]) : 8;
+        long millis = (args.length > 3 ? Integer.parseInt(args[3]) : 10) * 1000L;
+        Files.deleteIfExists(file);
+        String config = String.format("path: \"%s\"; table: \"users\"; uuidColumn: \"uuid\"; usernameColumn: \"username\"; " +
+                "accessTokenColumn: \"accessToken\"; serverIDColumn: \"serverID\";", file.toAbsolutePath().toString().replace("\\", "/"));
+
+        // Fill local database file
+        String[] tokens = new String[users];
+        SQLiteSourceConfig source = new SQLiteSourceConfig("benchPool", TextConfigReader.read(new StringReader(config), true));
+        try (SQLiteSourceConfig.Lease lease = source.lease())
+        {
+            try (Statement statement = lease.getConnection().createStatement())
+            {
+                statement.executeUpdate("CREATE TABLE users (uuid CHAR(36) PRIMARY KEY, username VARCHAR(16) UNIQUE, " +
+                        "accessToken CHAR(32), serverID VARCHAR(41))");
+            }
+            lease.getConnection().setAutoCommit(false);
+            PreparedStatement insert = lease.prepare("INSERT INTO users (uuid, username, accessToken) VALUES (?, ?, ?)");
+            for (int i = 0; i < users; i++)
+            {
+                tokens[i] = SecurityHelper.randomStringToken();
+                insert.setString(1, UUID.randomUUID().toString());
+                insert.setString(2, "user" + i);
+                insert.setString(3, tokens[i]);
+                insert.addBatch();
+            }
+            insert.executeBatch();
+            lease.getConnection().commit();
+            lease.getConnection().setAutoCommit(true);
+        }
+        source.close();
+
+        // Concurrent join (write) and check (cached read) pairs
+        LongAdder pairs = new LongAdder();
+        LongAdder failed = new LongAdder();
+        CountDownLatch done = new CountDownLatch(threads);
+        try (AuthHandler handler = AuthHandler.newHandler("sqlite", TextConfigReader.read(new StringReader(config), true)))
+        {
+            long start = System.nanoTime();
+            long deadline = start + millis * 1000000L;
+            for (int t = 0; t < threads; t++)
+            {
+                new Thread(() ->
+                {
+                    while (System.nanoTime() < deadline)
+                    {
+                        int i = ThreadLocalRandom.current().nextInt(users);
+                        String serverID = Integer.toHexString(ThreadLocalRandom.current().nextInt());
+                        try
+                        {
+                            if (handler.joinServer("user" + i, tokens[i], serverID) &&
+                                    handler.checkServer("user" + i, serverID) != null)
+                            {
+                                pairs.increment();
+                            }
+                            else
+                            {
+                                failed.increment(); // Same user joined elsewhere concurrently
+                            }
+                        }
+                        catch (Exception e)
+                        {
+                            failed.increment();
+                        }
+                    }
+                    done.countDown();
+                }).start();
+            }
+            done.await();
+            System.out.printf("%d users, %d threads: %.0f join+check/s, %d failed%n", users, threads,
+                    pairs.sum() * 1.0e9D / (System.nanoTime() - start), failed.sum());
+        }
+    }
+}
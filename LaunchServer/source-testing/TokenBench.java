@@ -0,0 +1,48 @@
+package launchserver;
+
+import launcher.helper.SecurityHelper;
+
+import java.security.SecureRandom;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+public final class TokenBench
+{
+    private TokenBench()
+    {
+    }
+
+    // Usage: TokenBench [threads] [secondsPerCase]
+    public static void main(String... args) throws Throwable
+    {
+        int threads = args.length > 0 ? Integer.parseInt(args[0]) : 8;
+        long millis = (args.length > 1 ? Integer.parseInt(args[1]) : 3) * 1000L;
+        SecureRandom shared = new SecureRandom();
+        run("new SecureRandom per token", threads, millis, () -> SecurityHelper.randomStringToken(new SecureRandom()));
+        run("one shared SecureRandom", threads, millis, () -> SecurityHelper.randomStringToken(shared));
+        run("per-thread SecureRandom", threads, millis, SecurityHelper::randomStringToken);
+    }
+
+    private static void run(String name, int threads, long millis, Supplier<String> generator) throws InterruptedException
+    {
+        LongAdder tokens = new LongAdder();
+        CountDownLatch done = new CountDownLatch(threads);
+        long start = System.nanoTime();
+        long deadline = start + millis * 1000000L;
+        for (int i = 0; i < threads; i++)
+        {
+            new Thread(() ->
+            {
+                while (System.nanoTime() < deadline)
+                {
+                    generator.get();
+                    tokens.increment();
+                }
+                done.countDown();
+            }).start();
+        }
+        done.await();
+        System.out.printf("%s, %d threads: %.0f tokens/s%n", name, threads, tokens.sum() * 1.0e9D / (System.nanoTime() - start));
+    }
+}
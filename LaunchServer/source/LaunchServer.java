@@ -22,7 +22,10 @@ import launchserver.command.handler.CommandHandler;
 import launchserver.command.handler.JLineCommandHandler;
 import launchserver.command.handler.StdCommandHandler;
 import launchserver.helpers.HTTPRequestHelper;
+import launchserver.helpers.HashIndex;
 import launchserver.response.ServerSocketHandler;
+import launchserver.response.profile.ProfileCache;
+import launchserver.response.update.PrecompressedCache;
 import launchserver.texture.TextureProvider;
 
 import java.io.BufferedReader;
@@ -58,6 +61,8 @@ public final class LaunchServer implements Runnable, AutoCloseable {
     public final Path updatesDir;
     @LauncherAPI
     public final Path profilesDir;
+    @LauncherAPI
+    public final Path cacheDir;
 
     @LauncherAPI
     public final AuthLimiter limiter;
@@ -83,6 +88,8 @@ public final class LaunchServer implements Runnable, AutoCloseable {
     public final CommandHandler commandHandler;
     @LauncherAPI
     public final ServerSocketHandler serverSocketHandler;
+    @LauncherAPI
+    public final PrecompressedCache compressedCache;
 
     private final AtomicBoolean started = new AtomicBoolean(false);
 
@@ -101,6 +108,8 @@ public final class LaunchServer implements Runnable, AutoCloseable {
         privateKeyFile = dir.resolve("private.key");
         updatesDir = dir.resolve("updates");
         profilesDir = dir.resolve("profiles");
+        cacheDir = dir.resolve("cache");
+        compressedCache = new PrecompressedCache(cacheDir.resolve("deflate"));
 
         // Set command handler
         CommandHandler localCommandHandler;
@@ -153,6 +162,10 @@ public final class LaunchServer implements Runnable, AutoCloseable {
         }
         config.verify();
 
+        // Drop cached profiles on username or texture change
+        AuthHandler.setListener(ProfileCache::invalidate);
+        TextureProvider.setListener(ProfileCache::invalidate);
+
         // Read IpList config
         LogHelper.info("Reading IP Connection List file");
         try {
@@ -233,6 +246,7 @@ public final class LaunchServer implements Runnable, AutoCloseable {
     @Override
     public void close() {
         serverSocketHandler.close();
+        limiter.close();
 
         // Close handlers & providers
         try {
@@ -358,11 +372,30 @@ public final class LaunchServer implements Runnable, AutoCloseable {
 
                 // Sync and sign update dir
                 LogHelper.subInfo("Syncing '%s' update dir", name);
-                HashedDir updateHDir = new HashedDir(updateDir, null, true, true);
+                Path indexFile = cacheDir.resolve("index").resolve(name + ".index");
+                HashIndex index = HashIndex.read(updateDir, indexFile);
+                HashedDir updateHDir = new HashedDir(updateDir, null, true, true, index);
+                Files.createDirectories(indexFile.getParent());
+                index.write(indexFile);
                 newUpdatesDirMap.put(name, new SignedObjectHolder<>(updateHDir, privateKey));
+
+                // Deflate once here instead of for every client
+                if (config.compress) {
+                    LogHelper.subInfo("Precompressing '%s' update dir", name);
+                    compressedCache.sync(updateDir, updateHDir);
+                }
             }
         }
         updatesDirMap = Collections.unmodifiableMap(newUpdatesDirMap);
+
+        // Drop precompressed files which aren't used anymore
+        if (config.compress) {
+            List<HashedDir> hdirs = new ArrayList<>(newUpdatesDirMap.size());
+            for (SignedObjectHolder<HashedDir> hdir : newUpdatesDirMap.values()) {
+                hdirs.add(hdir.object);
+            }
+            compressedCache.retain(hdirs);
+        }
     }
 
     private void generateConfigIfNotExists() throws IOException {
@@ -435,6 +468,10 @@ public final class LaunchServer implements Runnable, AutoCloseable {
         public final EXEL4JLauncherConfig launch4JConfig;
         @LauncherAPI
         public final boolean compress;
+        @LauncherAPI
+        public final boolean selectorTransport;
+        @LauncherAPI
+        public final int sessionIdleTimeout;
         private final StringConfigEntry address;
         private final String bindAddress;
         @LauncherAPI
@@ -447,6 +484,10 @@ public final class LaunchServer implements Runnable, AutoCloseable {
                     VerifyHelper.range(0, 65535), "Illegal LaunchServer port");
             bindAddress = block.hasEntry("bindAddress") ?
                     block.getEntryValue("bindAddress", StringConfigEntry.class) : getAddress();
+            selectorTransport = block.hasEntry("selectorTransport") &&
+                    block.getEntryValue("selectorTransport", BooleanConfigEntry.class);
+            sessionIdleTimeout = block.hasEntry("sessionIdleTimeout") ? VerifyHelper.verifyInt(block.getEntryValue("sessionIdleTimeout",
+                    IntegerConfigEntry.class), VerifyHelper.POSITIVE, "sessionIdleTimeout can't be <= 0") : 3000;
 
             // Limit Autorization
             authLimit = block.getEntryValue("authLimit", BooleanConfigEntry.class);
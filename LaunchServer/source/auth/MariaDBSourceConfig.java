@@ -1,8 +1,6 @@
 package launchserver.auth;
 
-import com.zaxxer.hikari.HikariDataSource;
 import launcher.LauncherAPI;
-import launcher.helper.LogHelper;
 import launcher.helper.VerifyHelper;
 import launcher.serialize.config.ConfigObject;
 import launcher.serialize.config.entry.BlockConfigEntry;
@@ -10,7 +8,6 @@ import launcher.serialize.config.entry.IntegerConfigEntry;
 import launcher.serialize.config.entry.StringConfigEntry;
 import org.mariadb.jdbc.MariaDbDataSource;
 
-import javax.sql.DataSource;
 import java.sql.Connection;
 import java.sql.SQLException;
 
@@ -23,9 +20,6 @@ public final class MariaDBSourceConfig extends ConfigObject implements AutoClose
             Integer.parseInt(System.getProperty("launcher.mysql.maxPoolSize", Integer.toString(3))),
             VerifyHelper.POSITIVE, "launcher.mysql.maxPoolSize can't be <= 0");
 
-    // Instance
-    private final String poolName;
-
     // Config
     private final String address;
     private final int port;
@@ -33,14 +27,15 @@ public final class MariaDBSourceConfig extends ConfigObject implements AutoClose
     private final String password;
     private final String database;
 
-    // Cache
-    private DataSource source;
-    private boolean hikari;
+    // Pool
+    private final SQLPool pool;
+    private final SQLReplicas replicas;
 
     @LauncherAPI
     public MariaDBSourceConfig(String poolName, BlockConfigEntry block) {
         super(block);
-        this.poolName = poolName;
+        pool = new SQLPool(poolName, block, MAX_POOL_SIZE, TIMEOUT * 1000L);
+        replicas = new SQLReplicas(poolName, block, MariaDBSourceConfig::new);
         address = VerifyHelper.verify_1(block.getEntryValue("address", StringConfigEntry.class),
                 VerifyHelper.NOT_EMPTY, "MySQL address can't be empty");
         port = VerifyHelper.verifyInt(block.getEntryValue("port", IntegerConfigEntry.class),
@@ -56,65 +51,58 @@ public final class MariaDBSourceConfig extends ConfigObject implements AutoClose
 
     @Override
     public synchronized void close() {
-        if (hikari) { // Shutdown hikari pool
-            ((HikariDataSource) source).close();
-        }
+        replicas.close();
+        pool.close();
     }
 
     @LauncherAPI
-    public synchronized Connection getConnection() throws SQLException {
-        if (source == null) { // New data source
-            MariaDbDataSource mariaDbSource = new MariaDbDataSource();
-
-            // Нету такого функционала у конектора MariaDB, попробуем так
-            //mariaDbSource.setCharacterEncoding("UTF-8");
-            //mariaDbSource.setUseSSL(false);
-
-            // Prep statements cache
-            //mariaDbSource.setPrepStmtCacheSize(250);
-            //mariaDbSource.setPrepStmtCacheSqlLimit(2048);
-            //mariaDbSource.setCachePrepStmts(true);
-            //mariaDbSource.setUseServerPrepStmts(true);
-
-            // General optimizations
-            //mariaDbSource.setCacheServerConfiguration(true);
-            //mariaDbSource.setUseLocalSessionState(true);
-            //mariaDbSource.setRewriteBatchedStatements(true);
-            //mariaDbSource.setMaintainTimeStats(false);
-            //mariaDbSource.setUseUnbufferedInput(false);
-            //mariaDbSource.setUseReadAheadInput(false);
-            //mariaDbSource.setTcpNoDelay(true);
-
-            // Set credentials
-            mariaDbSource.setServerName(address);
-            mariaDbSource.setPortNumber(port);
-            mariaDbSource.setUser(username);
-            mariaDbSource.setPassword(password);
-            mariaDbSource.setDatabaseName(database);
-
-            // Try using HikariCP
-            source = mariaDbSource;
-            try {
-                Class.forName("com.zaxxer.hikari.HikariDataSource");
-                hikari = true; // Used for shutdown. Not instanceof because of possible classpath error
-
-                // Set HikariCP pool
-                HikariDataSource hikariSource = new HikariDataSource();
-                hikariSource.setDataSource(source);
-
-                // Set pool settings
-                hikariSource.setPoolName(poolName);
-                hikariSource.setMinimumIdle(0);
-                hikariSource.setMaximumPoolSize(MAX_POOL_SIZE);
-                hikariSource.setIdleTimeout(TIMEOUT * 1000L);
-
-                // Replace source with hds
-                source = hikariSource;
-                LogHelper.info("HikariCP pooling enabled for '%s'", poolName);
-            } catch (ClassNotFoundException ignored) {
-                LogHelper.warning("HikariCP isn't in classpath for '%s'", poolName);
-            }
+    public Connection getConnection() throws SQLException {
+        if (!pool.isInitialized()) { // New data source
+            initPool();
+        }
+        return pool.getConnection();
+    }
+
+    @Override
+    public <T> T read(SQLReplicas.Query<T> query, SQLReplicas.Remainder<T> remainder) throws SQLException {
+        return replicas.read(this, query, remainder);
+    }
+
+    private synchronized void initPool() throws SQLException {
+        if (pool.isInitialized()) {
+            return;
         }
-        return source.getConnection();
+        MariaDbDataSource mariaDbSource = new MariaDbDataSource();
+
+        // Нету такого функционала у конектора MariaDB, попробуем так
+        //mariaDbSource.setCharacterEncoding("UTF-8");
+        //mariaDbSource.setUseSSL(false);
+
+        // Prep statements cache
+        //mariaDbSource.setPrepStmtCacheSize(250);
+        //mariaDbSource.setPrepStmtCacheSqlLimit(2048);
+        //mariaDbSource.setCachePrepStmts(true);
+        //mariaDbSource.setUseServerPrepStmts(true);
+
+        // General optimizations
+        //mariaDbSource.setCacheServerConfiguration(true);
+        //mariaDbSource.setUseLocalSessionState(true);
+        //mariaDbSource.setRewriteBatchedStatements(true);
+        //mariaDbSource.setMaintainTimeStats(false);
+        //mariaDbSource.setUseUnbufferedInput(false);
+        //mariaDbSource.setUseReadAheadInput(false);
+        //mariaDbSource.setTcpNoDelay(true);
+
+        // Set address and options by URL, setProperties() is deprecated
+        String options = pool.getStatementCacheSize() > 0 ?
+                "?useServerPrepStmts=true&cachePrepStmts=true&prepStmtCacheSize=" + pool.getStatementCacheSize() : "";
+        mariaDbSource.setUrl(String.format("jdbc:mariadb://%s:%d/%s%s",
+                address.indexOf(':') >= 0 ? '[' + address + ']' : address, port, database, options));
+
+        // Set credentials
+        mariaDbSource.setUser(username);
+        mariaDbSource.setPassword(password);
+
+        pool.init(mariaDbSource);
     }
 }
@@ -1,7 +1,6 @@
 package launchserver.auth;
 
 import com.mysql.cj.jdbc.MysqlDataSource;
-import com.zaxxer.hikari.HikariDataSource;
 import launcher.LauncherAPI;
 import launcher.helper.LogHelper;
 import launcher.helper.VerifyHelper;
@@ -11,7 +10,6 @@ import launcher.serialize.config.entry.BooleanConfigEntry;
 import launcher.serialize.config.entry.IntegerConfigEntry;
 import launcher.serialize.config.entry.StringConfigEntry;
 
-import javax.sql.DataSource;
 import java.sql.Connection;
 import java.sql.SQLException;
 
@@ -24,9 +22,6 @@ public final class MySQL8SourceConfig extends ConfigObject implements AutoClosea
             Integer.parseInt(System.getProperty("launcher.mysql.maxPoolSize", Integer.toString(3))),
             VerifyHelper.POSITIVE, "launcher.mysql.maxPoolSize can't be <= 0");
 
-    // Instance
-    private final String poolName;
-
     // Config
     private final String address;
     private final int port;
@@ -36,14 +31,15 @@ public final class MySQL8SourceConfig extends ConfigObject implements AutoClosea
     private final boolean useSSL;
     private final String timeZone;
 
-    // Cache
-    private DataSource source;
-    private boolean hikari;
+    // Pool
+    private final SQLPool pool;
+    private final SQLReplicas replicas;
 
     @LauncherAPI
     public MySQL8SourceConfig(String poolName, BlockConfigEntry block) {
         super(block);
-        this.poolName = poolName;
+        pool = new SQLPool(poolName, block, MAX_POOL_SIZE, TIMEOUT * 1000L);
+        replicas = new SQLReplicas(poolName, block, MySQL8SourceConfig::new);
         address = VerifyHelper.verify_1(block.getEntryValue("address", StringConfigEntry.class), VerifyHelper.NOT_EMPTY, "MySQL address can't be empty");
 
         port = VerifyHelper.verifyInt(block.getEntryValue("port", IntegerConfigEntry.class), VerifyHelper.range(0, 65535), "Illegal MySQL port");
@@ -63,67 +59,57 @@ public final class MySQL8SourceConfig extends ConfigObject implements AutoClosea
 
     @Override
     public synchronized void close() {
-        if (hikari) { // Shutdown hikari pool
-            ((HikariDataSource) source).close();
-        }
+        replicas.close();
+        pool.close();
     }
 
     @LauncherAPI
-    public synchronized Connection getConnection() throws SQLException {
-        if (source == null) { // New data source
-            MysqlDataSource mysqlSource = new MysqlDataSource();
-            mysqlSource.setCharacterEncoding("UTF-8");
-            mysqlSource.setUseSSL(useSSL);
-            mysqlSource.setAllowPublicKeyRetrieval(true);
-
-            // Prep statements cache
-            mysqlSource.setPrepStmtCacheSize(250);
-            mysqlSource.setPrepStmtCacheSqlLimit(2048);
-            mysqlSource.setCachePrepStmts(true);
-            mysqlSource.setUseServerPrepStmts(true);
-
-            // General optimizations
-            mysqlSource.setCacheServerConfiguration(true);
-            mysqlSource.setUseLocalSessionState(true);
-            mysqlSource.setRewriteBatchedStatements(true);
-            mysqlSource.setMaintainTimeStats(false);
-            mysqlSource.setUseUnbufferedInput(false);
-            mysqlSource.setUseReadAheadInput(false);
-            mysqlSource.setTcpNoDelay(true);
-
-            // Set credentials
-            mysqlSource.setServerName(address);
-            mysqlSource.setPortNumber(port);
-            mysqlSource.setUser(username);
-            mysqlSource.setPassword(password);
-            mysqlSource.setDatabaseName(database);
-
-            if (timeZone != null) mysqlSource.setServerTimezone(timeZone);
-
-            // Try using HikariCP
-            source = mysqlSource;
-            LogHelper.info("connection to db " + mysqlSource.getUrl());
-            try {
-                Class.forName("com.zaxxer.hikari.HikariDataSource");
-                hikari = true; // Used for shutdown. Not instanceof because of possible classpath error
-
-                // Set HikariCP pool
-                HikariDataSource hikariSource = new HikariDataSource();
-                hikariSource.setDataSource(source);
-
-                // Set pool settings
-                hikariSource.setPoolName(poolName);
-                hikariSource.setMinimumIdle(0);
-                hikariSource.setMaximumPoolSize(MAX_POOL_SIZE);
-                hikariSource.setIdleTimeout(TIMEOUT * 1000L);
-
-                // Replace source with hds
-                source = hikariSource;
-                LogHelper.info("HikariCP pooling enabled for '%s'", poolName);
-            } catch (ClassNotFoundException ignored) {
-                LogHelper.warning("HikariCP isn't in classpath for '%s'", poolName);
-            }
+    public Connection getConnection() throws SQLException {
+        if (!pool.isInitialized()) { // New data source
+            initPool();
+        }
+        return pool.getConnection();
+    }
+
+    @Override
+    public <T> T read(SQLReplicas.Query<T> query, SQLReplicas.Remainder<T> remainder) throws SQLException {
+        return replicas.read(this, query, remainder);
+    }
+
+    private synchronized void initPool() throws SQLException {
+        if (pool.isInitialized()) {
+            return;
         }
-        return source.getConnection();
+        MysqlDataSource mysqlSource = new MysqlDataSource();
+        mysqlSource.setCharacterEncoding("UTF-8");
+        mysqlSource.setUseSSL(useSSL);
+        mysqlSource.setAllowPublicKeyRetrieval(true);
+
+        // Prep statements cache
+        mysqlSource.setPrepStmtCacheSize(pool.getStatementCacheSize());
+        mysqlSource.setPrepStmtCacheSqlLimit(2048);
+        mysqlSource.setCachePrepStmts(pool.getStatementCacheSize() > 0);
+        mysqlSource.setUseServerPrepStmts(true);
+
+        // General optimizations
+        mysqlSource.setCacheServerConfiguration(true);
+        mysqlSource.setUseLocalSessionState(true);
+        mysqlSource.setRewriteBatchedStatements(true);
+        mysqlSource.setMaintainTimeStats(false);
+        mysqlSource.setUseUnbufferedInput(false);
+        mysqlSource.setUseReadAheadInput(false);
+        mysqlSource.setTcpNoDelay(true);
+
+        // Set credentials
+        mysqlSource.setServerName(address);
+        mysqlSource.setPortNumber(port);
+        mysqlSource.setUser(username);
+        mysqlSource.setPassword(password);
+        mysqlSource.setDatabaseName(database);
+
+        if (timeZone != null) mysqlSource.setServerTimezone(timeZone);
+
+        LogHelper.info("connection to db " + mysqlSource.getUrl());
+        pool.init(mysqlSource);
     }
 }
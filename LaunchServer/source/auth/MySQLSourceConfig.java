@@ -1,16 +1,13 @@
 package launchserver.auth;
 
 import com.mysql.jdbc.jdbc2.optional.MysqlDataSource;
-import com.zaxxer.hikari.HikariDataSource;
 import launcher.LauncherAPI;
-import launcher.helper.LogHelper;
 import launcher.helper.VerifyHelper;
 import launcher.serialize.config.ConfigObject;
 import launcher.serialize.config.entry.BlockConfigEntry;
 import launcher.serialize.config.entry.IntegerConfigEntry;
 import launcher.serialize.config.entry.StringConfigEntry;
 
-import javax.sql.DataSource;
 import java.sql.Connection;
 import java.sql.SQLException;
 
@@ -23,9 +20,6 @@ public final class MySQLSourceConfig extends ConfigObject implements AutoCloseab
             Integer.parseInt(System.getProperty("launcher.mysql.maxPoolSize", Integer.toString(3))),
             VerifyHelper.POSITIVE, "launcher.mysql.maxPoolSize can't be <= 0");
 
-    // Instance
-    private final String poolName;
-
     // Config
     private final String address;
     private final int port;
@@ -33,14 +27,15 @@ public final class MySQLSourceConfig extends ConfigObject implements AutoCloseab
     private final String password;
     private final String database;
 
-    // Cache
-    private DataSource source;
-    private boolean hikari;
+    // Pool
+    private final SQLPool pool;
+    private final SQLReplicas replicas;
 
     @LauncherAPI
     public MySQLSourceConfig(String poolName, BlockConfigEntry block) {
         super(block);
-        this.poolName = poolName;
+        pool = new SQLPool(poolName, block, MAX_POOL_SIZE, TIMEOUT * 1000L);
+        replicas = new SQLReplicas(poolName, block, MySQLSourceConfig::new);
         address = VerifyHelper.verify_1(block.getEntryValue("address", StringConfigEntry.class),
                 VerifyHelper.NOT_EMPTY, "MySQL address can't be empty");
         port = VerifyHelper.verifyInt(block.getEntryValue("port", IntegerConfigEntry.class),
@@ -56,63 +51,53 @@ public final class MySQLSourceConfig extends ConfigObject implements AutoCloseab
 
     @Override
     public synchronized void close() {
-        if (hikari) { // Shutdown hikari pool
-            ((HikariDataSource) source).close();
-        }
+        replicas.close();
+        pool.close();
     }
 
     @LauncherAPI
-    public synchronized Connection getConnection() throws SQLException {
-        if (source == null) { // New data source
-            MysqlDataSource mysqlSource = new MysqlDataSource();
-            mysqlSource.setCharacterEncoding("UTF-8");
-            mysqlSource.setUseSSL(false);
-
-            // Prep statements cache
-            mysqlSource.setPrepStmtCacheSize(250);
-            mysqlSource.setPrepStmtCacheSqlLimit(2048);
-            mysqlSource.setCachePrepStmts(true);
-            mysqlSource.setUseServerPrepStmts(true);
-
-            // General optimizations
-            mysqlSource.setCacheServerConfiguration(true);
-            mysqlSource.setUseLocalSessionState(true);
-            mysqlSource.setRewriteBatchedStatements(true);
-            mysqlSource.setMaintainTimeStats(false);
-            mysqlSource.setUseUnbufferedInput(false);
-            mysqlSource.setUseReadAheadInput(false);
-            mysqlSource.setTcpNoDelay(true);
-
-            // Set credentials
-            mysqlSource.setServerName(address);
-            mysqlSource.setPortNumber(port);
-            mysqlSource.setUser(username);
-            mysqlSource.setPassword(password);
-            mysqlSource.setDatabaseName(database);
-
-            // Try using HikariCP
-            source = mysqlSource;
-            try {
-                Class.forName("com.zaxxer.hikari.HikariDataSource");
-                hikari = true; // Used for shutdown. Not instanceof because of possible classpath error
-
-                // Set HikariCP pool
-                HikariDataSource hikariSource = new HikariDataSource();
-                hikariSource.setDataSource(source);
+    public Connection getConnection() throws SQLException {
+        if (!pool.isInitialized()) { // New data source
+            initPool();
+        }
+        return pool.getConnection();
+    }
 
-                // Set pool settings
-                hikariSource.setPoolName(poolName);
-                hikariSource.setMinimumIdle(0);
-                hikariSource.setMaximumPoolSize(MAX_POOL_SIZE);
-                hikariSource.setIdleTimeout(TIMEOUT * 1000L);
+    @Override
+    public <T> T read(SQLReplicas.Query<T> query, SQLReplicas.Remainder<T> remainder) throws SQLException {
+        return replicas.read(this, query, remainder);
+    }
 
-                // Replace source with hds
-                source = hikariSource;
-                LogHelper.info("HikariCP pooling enabled for '%s'", poolName);
-            } catch (ClassNotFoundException ignored) {
-                LogHelper.warning("HikariCP isn't in classpath for '%s'", poolName);
-            }
+    private synchronized void initPool() throws SQLException {
+        if (pool.isInitialized()) {
+            return;
         }
-        return source.getConnection();
+        MysqlDataSource mysqlSource = new MysqlDataSource();
+        mysqlSource.setCharacterEncoding("UTF-8");
+        mysqlSource.setUseSSL(false);
+
+        // Prep statements cache
+        mysqlSource.setPrepStmtCacheSize(pool.getStatementCacheSize());
+        mysqlSource.setPrepStmtCacheSqlLimit(2048);
+        mysqlSource.setCachePrepStmts(pool.getStatementCacheSize() > 0);
+        mysqlSource.setUseServerPrepStmts(true);
+
+        // General optimizations
+        mysqlSource.setCacheServerConfiguration(true);
+        mysqlSource.setUseLocalSessionState(true);
+        mysqlSource.setRewriteBatchedStatements(true);
+        mysqlSource.setMaintainTimeStats(false);
+        mysqlSource.setUseUnbufferedInput(false);
+        mysqlSource.setUseReadAheadInput(false);
+        mysqlSource.setTcpNoDelay(true);
+
+        // Set credentials
+        mysqlSource.setServerName(address);
+        mysqlSource.setPortNumber(port);
+        mysqlSource.setUser(username);
+        mysqlSource.setPassword(password);
+        mysqlSource.setDatabaseName(database);
+
+        pool.init(mysqlSource);
     }
 }
@@ -1,8 +1,6 @@
 package launchserver.auth;
 
-import com.zaxxer.hikari.HikariDataSource;
 import launcher.LauncherAPI;
-import launcher.helper.LogHelper;
 import launcher.helper.VerifyHelper;
 import launcher.serialize.config.ConfigObject;
 import launcher.serialize.config.entry.BlockConfigEntry;
@@ -10,7 +8,6 @@ import launcher.serialize.config.entry.IntegerConfigEntry;
 import launcher.serialize.config.entry.StringConfigEntry;
 import org.postgresql.ds.PGSimpleDataSource;
 
-import javax.sql.DataSource;
 import java.sql.Connection;
 import java.sql.SQLException;
 
@@ -23,9 +20,6 @@ public final class PostgreSQLSourceConfig extends ConfigObject implements AutoCl
             Integer.parseInt(System.getProperty("launcher.postgresql.maxPoolSize", Integer.toString(3))),
             VerifyHelper.POSITIVE, "launcher.postgresql.maxPoolSize can't be <= 0");
 
-    // Instance
-    private final String poolName;
-
     // Config
     private final String address;
     private final int port;
@@ -33,14 +27,15 @@ public final class PostgreSQLSourceConfig extends ConfigObject implements AutoCl
     private final String password;
     private final String database;
 
-    // Cache
-    private DataSource source;
-    private boolean hikari;
+    // Pool
+    private final SQLPool pool;
+    private final SQLReplicas replicas;
 
     @LauncherAPI
     public PostgreSQLSourceConfig(String poolName, BlockConfigEntry block) {
         super(block);
-        this.poolName = poolName;
+        pool = new SQLPool(poolName, block, MAX_POOL_SIZE, TIMEOUT * 1000L);
+        replicas = new SQLReplicas(poolName, block, PostgreSQLSourceConfig::new);
         address = VerifyHelper.verify_1(block.getEntryValue("address", StringConfigEntry.class),
                 VerifyHelper.NOT_EMPTY, "PostgreSQL address can't be empty");
         port = VerifyHelper.verifyInt(block.getEntryValue("port", IntegerConfigEntry.class),
@@ -56,50 +51,41 @@ public final class PostgreSQLSourceConfig extends ConfigObject implements AutoCl
 
     @Override
     public synchronized void close() {
-        if (hikari) { // Shutdown hikari pool
-            ((HikariDataSource) source).close();
-        }
+        replicas.close();
+        pool.close();
     }
 
     @LauncherAPI
-    @SuppressWarnings("deprecation") // Временный фикс Warnings
-    public synchronized Connection getConnection() throws SQLException {
-        if (source == null) { // New data source
-            PGSimpleDataSource postgresqlSource = new PGSimpleDataSource();
-
-            // Set credentials
-            postgresqlSource.setServerName(address);
-            postgresqlSource.setPortNumber(port);
-            // TODO: Нужно переделать под несколько серверов:
-            //postgresqlSource.setServerNames(address);
-            //postgresqlSource.setPortNumbers(port);
-            postgresqlSource.setUser(username);
-            postgresqlSource.setPassword(password);
-            postgresqlSource.setDatabaseName(database);
+    public Connection getConnection() throws SQLException {
+        if (!pool.isInitialized()) { // New data source
+            initPool();
+        }
+        return pool.getConnection();
+    }
 
-            // Try using HikariCP
-            source = postgresqlSource;
-            try {
-                Class.forName("com.zaxxer.hikari.HikariDataSource");
-                hikari = true; // Used for shutdown. Not instanceof because of possible classpath error
+    @Override
+    public <T> T read(SQLReplicas.Query<T> query, SQLReplicas.Remainder<T> remainder) throws SQLException {
+        return replicas.read(this, query, remainder);
+    }
 
-                // Set HikariCP pool
-                HikariDataSource hikariSource = new HikariDataSource();
-                hikariSource.setDataSource(source);
+    @SuppressWarnings("deprecation") // Временный фикс Warnings
+    private synchronized void initPool() {
+        if (pool.isInitialized()) {
+            return;
+        }
+        PGSimpleDataSource postgresqlSource = new PGSimpleDataSource();
+        postgresqlSource.setPreparedStatementCacheQueries(pool.getStatementCacheSize());
 
-                // Set pool settings
-                hikariSource.setPoolName(poolName);
-                hikariSource.setMinimumIdle(0);
-                hikariSource.setMaximumPoolSize(MAX_POOL_SIZE);
-                hikariSource.setIdleTimeout(TIMEOUT * 1000L);
+        // Set credentials
+        postgresqlSource.setServerName(address);
+        postgresqlSource.setPortNumber(port);
+        // TODO: Нужно переделать под несколько серверов:
+        //postgresqlSource.setServerNames(address);
+        //postgresqlSource.setPortNumbers(port);
+        postgresqlSource.setUser(username);
+        postgresqlSource.setPassword(password);
+        postgresqlSource.setDatabaseName(database);
 
-                // Replace source with hds
-                source = hikariSource;
-                LogHelper.info("HikariCP pooling enabled for '%s'", poolName);
-            } catch (ClassNotFoundException ignored) {
-                LogHelper.warning("HikariCP isn't in classpath for '%s'", poolName);
-            }
-        }
-        return source.getConnection();
+        pool.init(postgresqlSource);
     }
 }
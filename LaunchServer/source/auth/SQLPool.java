@@ -0,0 +1,139 @@
+package launchserver.auth;
+
+import com.zaxxer.hikari.HikariDataSource;
+import launcher.LauncherAPI;
+import launcher.helper.LogHelper;
+import launcher.helper.VerifyHelper;
+import launcher.serialize.config.entry.BlockConfigEntry;
+import launcher.serialize.config.entry.IntegerConfigEntry;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+// HikariCP settings of single SQL source block, all optional:
+// maxPoolSize, minIdle, idleTimeout, maxLifetime, connectionTimeout, leakDetectionThreshold (ms) and statementCacheSize
+public final class SQLPool implements AutoCloseable {
+    private static final int DEFAULT_MAX_LIFETIME = 1800000;
+    private static final int DEFAULT_CONNECTION_TIMEOUT = 30000;
+    private static final int DEFAULT_STATEMENT_CACHE_SIZE = 250;
+
+    // Instance
+    private final String poolName;
+    private final SQLStats stats;
+
+    // Config
+    private final int maxPoolSize;
+    private final int minIdle;
+    private final long idleTimeout;
+    private final long maxLifetime;
+    private final long connectionTimeout;
+    private final long leakDetectionThreshold;
+    private final int statementCacheSize;
+
+    // Cache
+    private volatile DataSource source;
+    private boolean hikari;
+
+    @LauncherAPI
+    public SQLPool(String poolName, BlockConfigEntry block, int defaultMaxPoolSize, long defaultIdleTimeout) {
+        this.poolName = poolName;
+        maxPoolSize = VerifyHelper.verifyInt(getInt(block, "maxPoolSize", defaultMaxPoolSize),
+                VerifyHelper.POSITIVE, "SQL maxPoolSize can't be <= 0");
+        minIdle = VerifyHelper.verifyInt(getInt(block, "minIdle", 0),
+                VerifyHelper.range(0, maxPoolSize), "SQL minIdle should be 0-maxPoolSize");
+        idleTimeout = block.hasEntry("idleTimeout") ? VerifyHelper.verifyInt(getInt(block, "idleTimeout", 0),
+                VerifyHelper.NOT_NEGATIVE, "SQL idleTimeout can't be < 0") : defaultIdleTimeout;
+        maxLifetime = VerifyHelper.verifyInt(getInt(block, "maxLifetime", DEFAULT_MAX_LIFETIME),
+                VerifyHelper.NOT_NEGATIVE, "SQL maxLifetime can't be < 0");
+        connectionTimeout = VerifyHelper.verifyInt(getInt(block, "connectionTimeout", DEFAULT_CONNECTION_TIMEOUT),
+                VerifyHelper.POSITIVE, "SQL connectionTimeout can't be <= 0");
+        leakDetectionThreshold = VerifyHelper.verifyInt(getInt(block, "leakDetectionThreshold", 0),
+                VerifyHelper.NOT_NEGATIVE, "SQL leakDetectionThreshold can't be < 0");
+        statementCacheSize = VerifyHelper.verifyInt(getInt(block, "statementCacheSize", DEFAULT_STATEMENT_CACHE_SIZE),
+                VerifyHelper.NOT_NEGATIVE, "SQL statementCacheSize can't be < 0");
+
+        // Stats are visible before first connection
+        stats = new SQLStats(poolName, maxPoolSize);
+        stats.register();
+    }
+
+    @Override
+    public synchronized void close() {
+        stats.unregister();
+        if (hikari) { // Shutdown hikari pool
+            ((HikariDataSource) source).close();
+        }
+    }
+
+    @LauncherAPI
+    public boolean isInitialized() {
+        return source != null;
+    }
+
+    @LauncherAPI
+    public synchronized void init(DataSource dataSource) {
+        if (source != null) {
+            return;
+        }
+
+        // Try using HikariCP
+        try {
+            Class.forName("com.zaxxer.hikari.HikariDataSource");
+
+            // Set HikariCP pool
+            HikariDataSource hikariSource = new HikariDataSource();
+            hikariSource.setDataSource(dataSource);
+
+            // Set pool settings
+            hikariSource.setPoolName(poolName);
+            hikariSource.setMinimumIdle(minIdle);
+            hikariSource.setMaximumPoolSize(maxPoolSize);
+            hikariSource.setIdleTimeout(idleTimeout);
+            hikariSource.setMaxLifetime(maxLifetime);
+            hikariSource.setConnectionTimeout(connectionTimeout);
+            hikariSource.setLeakDetectionThreshold(leakDetectionThreshold);
+
+            // Replace source with hds
+            hikari = true; // Used for shutdown. Not instanceof because of possible classpath error
+            source = hikariSource;
+            LogHelper.info("HikariCP pooling enabled for '%s'", poolName);
+        } catch (ClassNotFoundException ignored) {
+            source = dataSource;
+            LogHelper.warning("HikariCP isn't in classpath for '%s'", poolName);
+        }
+    }
+
+    @LauncherAPI
+    public Connection getConnection() throws SQLException {
+        long start = System.nanoTime();
+        Connection connection;
+        try {
+            connection = source.getConnection();
+        } catch (SQLException e) {
+            stats.onAcquireFailure();
+            throw e;
+        }
+        stats.onAcquire(System.nanoTime() - start);
+        return stats.instrument(connection, true);
+    }
+
+    @LauncherAPI
+    public int getStatementCacheSize() {
+        return statementCacheSize;
+    }
+
+    @LauncherAPI
+    public SQLStats getStats() {
+        return stats;
+    }
+
+    @Override
+    public String toString() {
+        return stats.toString();
+    }
+
+    private static int getInt(BlockConfigEntry block, String name, int defaultValue) {
+        return block.hasEntry(name) ? block.getEntryValue(name, IntegerConfigEntry.class) : defaultValue;
+    }
+}
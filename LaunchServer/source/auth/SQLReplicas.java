@@ -0,0 +1,193 @@
+package launchserver.auth;
+
+import launcher.LauncherAPI;
+import launcher.helper.CommonHelper;
+import launcher.helper.LogHelper;
+import launcher.helper.VerifyHelper;
+import launcher.serialize.config.entry.BlockConfigEntry;
+import launcher.serialize.config.entry.IntegerConfigEntry;
+import launcher.serialize.config.entry.ListConfigEntry;
+import launcher.serialize.config.entry.StringConfigEntry;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiFunction;
+
+// Optional read replicas of SQL source: 'replicas' list of source blocks, 'replicaCheckInterval' (ms),
+// required 'replicaLagQuery' returning lag in seconds and 'replicaMaxLag'. Replica misses and errors fall back to primary
+public final class SQLReplicas implements AutoCloseable {
+    private static final int CHECK_TIMEOUT = 5; // Seconds
+
+    // Instance
+    private final String poolName;
+    private final List<Replica> replicas;
+    private final String lagQuery;
+    private final int maxLag;
+    private final ScheduledThreadPoolExecutor checker;
+    private final AtomicInteger next = new AtomicInteger();
+
+    @LauncherAPI
+    public SQLReplicas(String poolName, BlockConfigEntry block, BiFunction<String, BlockConfigEntry, SQLSourceConfig> factory) {
+        this.poolName = poolName;
+        if (!block.hasEntry("replicas")) {
+            replicas = Collections.emptyList();
+            lagQuery = null;
+            maxLag = 0;
+            checker = null;
+            return;
+        }
+
+        // Create replica sources, same type as primary
+        List<Replica> list = new ArrayList<>(2);
+        for (Object entry : block.getEntry("replicas", ListConfigEntry.class).getValue()) {
+            String name = poolName + "Replica" + list.size();
+            list.add(new Replica(name, factory.apply(name, (BlockConfigEntry) entry)));
+        }
+        replicas = Collections.unmodifiableList(list);
+        // Stale replica may return old rows, so it's used only while its lag is known to be small
+        if (!block.hasEntry("replicaLagQuery")) {
+            throw new IllegalArgumentException("Replica lag query is required for read replicas");
+        }
+        lagQuery = VerifyHelper.verify_1(block.getEntryValue("replicaLagQuery", StringConfigEntry.class),
+                VerifyHelper.NOT_EMPTY, "Replica lag query can't be empty");
+        maxLag = block.hasEntry("replicaMaxLag") ? VerifyHelper.verifyInt(block.getEntryValue("replicaMaxLag", IntegerConfigEntry.class),
+                VerifyHelper.NOT_NEGATIVE, "Replica max lag can't be < 0") : 10;
+        int checkInterval = block.hasEntry("replicaCheckInterval") ? VerifyHelper.verifyInt(block.getEntryValue("replicaCheckInterval", IntegerConfigEntry.class),
+                VerifyHelper.POSITIVE, "Replica check interval can't be <= 0") : 5000;
+
+        // Start health checks, replicas are unused until first one passes
+        checker = new ScheduledThreadPoolExecutor(1, r -> CommonHelper.newThread("SQL Replica Check Thread", true, r));
+        checker.scheduleWithFixedDelay(this::check, 0, checkInterval, TimeUnit.MILLISECONDS);
+        LogHelper.info("%d read replica(s) configured for '%s'", replicas.size(), poolName);
+    }
+
+    @Override
+    public void close() {
+        if (checker != null) {
+            checker.shutdownNow();
+        }
+        for (Replica replica : replicas) {
+            replica.source.close();
+        }
+    }
+
+    @LauncherAPI
+    public <T> T read(SQLSourceConfig primary, Query<T> query, Remainder<T> remainder) throws SQLException {
+        Replica replica = select();
+        if (replica == null) {
+            return query(primary, query); // No healthy replicas
+        }
+
+        // Replica errors fall back to primary
+        T result;
+        try (Connection c = replica.source.getConnection()) {
+            result = query.query(c);
+        } catch (SQLException e) {
+            replica.markDown(e.toString());
+            return query(primary, query);
+        }
+
+        // Missing rows may be not replicated yet, ask primary only for them
+        Query<T> rest = remainder.of(result);
+        return rest == null ? result : query(primary, rest);
+    }
+
+    private static <T> T query(SQLSourceConfig source, Query<T> query) throws SQLException {
+        try (Connection c = source.getConnection()) {
+            return query.query(c);
+        }
+    }
+
+    private Replica select() {
+        int size = replicas.size();
+        if (size == 0) {
+            return null;
+        }
+
+        // Round-robin over healthy replicas
+        int start = next.getAndIncrement() & Integer.MAX_VALUE;
+        for (int i = 0; i < size; i++) {
+            Replica replica = replicas.get((start + i) % size);
+            if (replica.healthy) {
+                return replica;
+            }
+        }
+        return null;
+    }
+
+    private void check() {
+        for (Replica replica : replicas) {
+            try (Connection c = replica.source.getConnection()) {
+                if (!c.isValid(CHECK_TIMEOUT)) {
+                    replica.markDown("connection isn't valid");
+                    continue;
+                }
+
+                // Too stale replicas are skipped until they catch up
+                try (Statement s = c.createStatement()) {
+                    s.setQueryTimeout(CHECK_TIMEOUT);
+                    try (ResultSet set = s.executeQuery(lagQuery)) {
+                        if (!set.next() || set.getObject(1) == null) {
+                            replica.markDown("replication isn't running");
+                            continue;
+                        }
+                        long lag = set.getLong(1);
+                        if (lag > maxLag) {
+                            replica.markDown(String.format("lag is %ds", lag));
+                            continue;
+                        }
+                    }
+                }
+                replica.markUp();
+            } catch (SQLException | RuntimeException e) {
+                replica.markDown(e.toString());
+            }
+        }
+    }
+
+    @FunctionalInterface
+    public interface Query<T> {
+        @LauncherAPI
+        T query(Connection c) throws SQLException;
+    }
+
+    @FunctionalInterface
+    public interface Remainder<T> {
+        // Query for the part missing in replica result (completing it), null if result is complete
+        @LauncherAPI
+        Query<T> of(T result);
+    }
+
+    private final class Replica {
+        private final String name;
+        private final SQLSourceConfig source;
+        private volatile boolean healthy;
+
+        private Replica(String name, SQLSourceConfig source) {
+            this.name = name;
+            this.source = source;
+        }
+
+        private void markDown(String reason) {
+            if (healthy) {
+                healthy = false;
+                LogHelper.warning("Replica '%s' of '%s' is down: %s", name, poolName, reason);
+            }
+        }
+
+        private void markUp() {
+            if (!healthy) {
+                healthy = true;
+                LogHelper.info("Replica '%s' of '%s' is up", name, poolName);
+            }
+        }
+    }
+}
@@ -7,4 +7,12 @@ public interface SQLSourceConfig {
     void close();
 
     Connection getConnection() throws SQLException;
+
+    // Read-only query, may go to replica. Part missing in replica result is queried from primary.
+    // Stale row isn't detected, so login (password) queries shouldn't use it
+    <T> T read(SQLReplicas.Query<T> query, SQLReplicas.Remainder<T> remainder) throws SQLException;
+
+    default <T> T read(SQLReplicas.Query<T> query) throws SQLException {
+        return read(query, result -> result == null ? query : null);
+    }
 }
@@ -0,0 +1,168 @@
+package launchserver.auth;
+
+import launcher.LauncherAPI;
+import launchserver.helpers.LatencyHistogram;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.Statement;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+// Pool wait, active connections and per-statement latency of single SQL source
+public final class SQLStats {
+    private static final int MAX_STATEMENTS = 256;
+    private static final String OTHER_STATEMENTS = "<other>";
+    private static final Map<String, SQLStats> POOLS = new ConcurrentSkipListMap<>(); // By name, for stats
+
+    // Instance
+    private final String poolName;
+    private final int maxPoolSize;
+    private final LatencyHistogram waitTime = new LatencyHistogram();
+    private final AtomicInteger active = new AtomicInteger();
+    private final LongAdder failures = new LongAdder();
+    private final Map<String, LatencyHistogram> statements = new ConcurrentHashMap<>(16);
+
+    @LauncherAPI
+    public SQLStats(String poolName, int maxPoolSize) {
+        this.poolName = poolName;
+        this.maxPoolSize = maxPoolSize;
+    }
+
+    @LauncherAPI
+    public static Collection<SQLStats> getPools() {
+        return Collections.unmodifiableCollection(POOLS.values());
+    }
+
+    @LauncherAPI
+    public void register() {
+        POOLS.put(poolName, this);
+    }
+
+    @LauncherAPI
+    public void unregister() {
+        POOLS.remove(poolName, this);
+    }
+
+    @LauncherAPI
+    public void onAcquire(long waitNanos) {
+        waitTime.record(waitNanos);
+        active.incrementAndGet();
+    }
+
+    @LauncherAPI
+    public void onAcquireFailure() {
+        failures.increment();
+    }
+
+    @LauncherAPI
+    public void onRelease() {
+        active.decrementAndGet();
+    }
+
+    @LauncherAPI
+    public Connection instrument(Connection connection, boolean releaseOnClose) {
+        return (Connection) Proxy.newProxyInstance(SQLStats.class.getClassLoader(),
+                new Class<?>[] { Connection.class }, new ConnectionHandler(connection, releaseOnClose));
+    }
+
+    @LauncherAPI
+    public Map<String, LatencyHistogram> getStatements() {
+        return Collections.unmodifiableMap(statements);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s: active=%d/%d, failures=%d, wait=[%s], statements=%d",
+                poolName, active.get(), maxPoolSize, failures.sum(), waitTime, statements.size());
+    }
+
+    private LatencyHistogram statement(String sql) {
+        LatencyHistogram histogram = statements.get(sql);
+        if (histogram == null) { // Don't grow forever on dynamic SQL
+            histogram = statements.size() < MAX_STATEMENTS ? statements.computeIfAbsent(sql, s -> new LatencyHistogram()) :
+                    statements.computeIfAbsent(OTHER_STATEMENTS, s -> new LatencyHistogram());
+        }
+        return histogram;
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    private final class ConnectionHandler implements InvocationHandler {
+        private final Connection connection;
+        private final AtomicBoolean released;
+
+        private ConnectionHandler(Connection connection, boolean releaseOnClose) {
+            this.connection = connection;
+            released = new AtomicBoolean(!releaseOnClose);
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "prepareStatement":
+                case "prepareCall":
+                    Statement prepared = (Statement) SQLStats.invoke(connection, method, args);
+                    return Proxy.newProxyInstance(SQLStats.class.getClassLoader(), new Class<?>[] { method.getReturnType() },
+                            new StatementHandler(prepared, (String) args[0]));
+                case "createStatement":
+                    Statement statement = (Statement) SQLStats.invoke(connection, method, args);
+                    return Proxy.newProxyInstance(SQLStats.class.getClassLoader(), new Class<?>[] { Statement.class },
+                            new StatementHandler(statement, null));
+                case "close":
+                    if (released.compareAndSet(false, true)) {
+                        onRelease();
+                    }
+                    return SQLStats.invoke(connection, method, args);
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                default:
+                    return SQLStats.invoke(connection, method, args);
+            }
+        }
+    }
+
+    private final class StatementHandler implements InvocationHandler {
+        private final Statement statement;
+        private final String sql;
+
+        private StatementHandler(Statement statement, String sql) {
+            this.statement = statement;
+            this.sql = sql;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            if (!method.getName().startsWith("execute")) {
+                return SQLStats.invoke(statement, method, args);
+            }
+
+            // Plain statements are timed by executed SQL
+            String key = sql != null ? sql : args != null && args.length > 0 && args[0] instanceof String ?
+                    (String) args[0] : OTHER_STATEMENTS;
+            long start = System.nanoTime();
+            try {
+                return SQLStats.invoke(statement, method, args);
+            } finally {
+                statement(key).record(System.nanoTime() - start);
+            }
+        }
+    }
+}
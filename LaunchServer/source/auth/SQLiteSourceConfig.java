@@ -0,0 +1,191 @@
+package launchserver.auth;
+
+import launcher.LauncherAPI;
+import launcher.helper.LogHelper;
+import launcher.helper.VerifyHelper;
+import launcher.serialize.config.ConfigObject;
+import launcher.serialize.config.entry.BlockConfigEntry;
+import launcher.serialize.config.entry.StringConfigEntry;
+
+import java.sql.*;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+// SQLite connections aren't thread-safe, so each one is leased to a single thread along with its statements.
+// WAL lets readers work while someone writes, busy_timeout makes concurrent writers wait instead of failing
+public final class SQLiteSourceConfig extends ConfigObject implements AutoCloseable {
+    @LauncherAPI
+    public static final int TIMEOUT = VerifyHelper.verifyInt(
+            Integer.parseInt(System.getProperty("launcher.sqlite.busyTimeout", Integer.toString(5000))),
+            VerifyHelper.POSITIVE, "launcher.sqlite.busyTimeout can't be <= 0");
+    private static final int MAX_POOL_SIZE = VerifyHelper.verifyInt(
+            Integer.parseInt(System.getProperty("launcher.sqlite.maxPoolSize", Integer.toString(4))),
+            VerifyHelper.POSITIVE, "launcher.sqlite.maxPoolSize can't be <= 0");
+
+    // Instance
+    private final String poolName;
+    private final String url;
+    private final BlockingQueue<Lease> idle = new ArrayBlockingQueue<>(MAX_POOL_SIZE);
+    private final SQLStats stats;
+
+    // State (guarded by this)
+    private int created;
+    private boolean closed;
+    private boolean initialized;
+
+    @LauncherAPI
+    public SQLiteSourceConfig(String poolName, BlockConfigEntry block) {
+        super(block);
+        this.poolName = poolName;
+        url = "jdbc:sqlite:" + VerifyHelper.verify_1(block.getEntryValue("path", StringConfigEntry.class),
+                VerifyHelper.NOT_EMPTY, "SQLite path can't be empty");
+
+        stats = new SQLStats(poolName, MAX_POOL_SIZE);
+        stats.register();
+
+        // Old drivers don't register themselves
+        try {
+            Class.forName("org.sqlite.JDBC");
+        } catch (ClassNotFoundException ignored) {
+            LogHelper.warning("SQLite JDBC driver isn't in classpath");
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        closed = true;
+        stats.unregister();
+        for (Lease lease = idle.poll(); lease != null; lease = idle.poll()) {
+            lease.closeConnection();
+        }
+    }
+
+    @LauncherAPI
+    public Lease lease() throws SQLException {
+        long start = System.nanoTime();
+        Lease lease;
+        try {
+            lease = acquire();
+        } catch (SQLException e) {
+            stats.onAcquireFailure();
+            throw e;
+        }
+        stats.onAcquire(System.nanoTime() - start);
+        return lease;
+    }
+
+    private Lease acquire() throws SQLException {
+        Lease lease = idle.poll();
+        if (lease != null) {
+            return lease;
+        }
+
+        // Open new connection if pool isn't full yet
+        synchronized (this) {
+            if (closed) {
+                throw new SQLException(String.format("SQLite pool '%s' is closed", poolName));
+            }
+            if (created < MAX_POOL_SIZE) {
+                lease = new Lease(openConnection());
+                created++;
+                return lease;
+            }
+        }
+
+        // Wait for someone to release connection
+        try {
+            lease = idle.poll(TIMEOUT, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for SQLite connection", e);
+        }
+        if (lease == null) {
+            throw new SQLTimeoutException(String.format("No free SQLite connection in '%s'", poolName));
+        }
+        return lease;
+    }
+
+    private Connection openConnection() throws SQLException {
+        Connection connection = DriverManager.getConnection(url);
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("PRAGMA busy_timeout = " + TIMEOUT);
+            if (!initialized) { // Journal mode is stored in database file
+                try (ResultSet set = statement.executeQuery("PRAGMA journal_mode = WAL")) {
+                    String mode = set.next() ? set.getString(1) : "unknown";
+                    if (!"wal".equalsIgnoreCase(mode)) {
+                        LogHelper.warning("SQLite database for '%s' isn't in WAL mode: %s", poolName, mode);
+                    }
+                }
+                initialized = true;
+                LogHelper.info("SQLite pooling enabled for '%s'", poolName);
+            }
+            statement.execute("PRAGMA synchronous = NORMAL"); // Safe with WAL, no fsync per commit
+        } catch (SQLException e) {
+            connection.close();
+            throw e;
+        }
+        return stats.instrument(connection, false);
+    }
+
+    private void release(Lease lease) {
+        stats.onRelease();
+        boolean reuse;
+        try {
+            reuse = !lease.connection.isClosed() && lease.connection.getAutoCommit();
+        } catch (SQLException ignored) {
+            reuse = false;
+        }
+
+        // Broken or closed pool connections are dropped
+        synchronized (this) {
+            if (reuse && !closed && idle.offer(lease)) {
+                return;
+            }
+            created--;
+        }
+        lease.closeConnection();
+    }
+
+    public final class Lease implements AutoCloseable {
+        private final Connection connection;
+        private final Map<String, PreparedStatement> statements = new HashMap<>(8);
+
+        private Lease(Connection connection) {
+            this.connection = connection;
+        }
+
+        @LauncherAPI
+        public Connection getConnection() {
+            return connection;
+        }
+
+        @LauncherAPI
+        public PreparedStatement prepare(String sql) throws SQLException {
+            PreparedStatement statement = statements.get(sql);
+            if (statement == null) {
+                statement = connection.prepareStatement(sql);
+                statement.setQueryTimeout((TIMEOUT + 999) / 1000); // Seconds
+                statements.put(sql, statement);
+            } else {
+                statement.clearParameters();
+            }
+            return statement;
+        }
+
+        @Override
+        public void close() {
+            release(this);
+        }
+
+        private void closeConnection() {
+            try {
+                connection.close(); // Closes cached statements too
+            } catch (SQLException e) {
+                LogHelper.error(e);
+            }
+        }
+    }
+}
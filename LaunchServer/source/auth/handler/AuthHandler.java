@@ -15,6 +15,7 @@ import java.util.concurrent.ConcurrentHashMap;
 
 public abstract class AuthHandler extends ConfigObject implements AutoCloseable {
     private static final Map<String, Adapter<AuthHandler>> AUTH_HANDLERS = new ConcurrentHashMap<>(10);
+    private static volatile Listener listener;
 
     static {
         // Default Handlers
@@ -63,6 +64,19 @@ public abstract class AuthHandler extends ConfigObject implements AutoCloseable
                 String.format("Auth handler has been already registered: '%s'", name));
     }
 
+    @LauncherAPI
+    public static void setListener(Listener listener) {
+        AuthHandler.listener = listener;
+    }
+
+    @LauncherAPI
+    protected static void onUsernameChanged(UUID uuid) {
+        Listener listener = AuthHandler.listener;
+        if (listener != null) {
+            listener.onUsernameChanged(uuid);
+        }
+    }
+
     @Override
     public abstract void close() throws IOException;
 
@@ -80,4 +94,20 @@ public abstract class AuthHandler extends ConfigObject implements AutoCloseable
 
     @LauncherAPI
     public abstract String uuidToUsername(UUID uuid) throws IOException;
+
+    // Same order as usernames, null for unknown ones
+    @LauncherAPI
+    public UUID[] usernamesToUUIDs(String... usernames) throws IOException {
+        UUID[] uuids = new UUID[usernames.length];
+        for (int i = 0; i < usernames.length; i++) {
+            uuids[i] = usernameToUUID(usernames[i]);
+        }
+        return uuids;
+    }
+
+    @FunctionalInterface
+    public interface Listener {
+        @LauncherAPI
+        void onUsernameChanged(UUID uuid);
+    }
 }
@@ -7,6 +7,7 @@ import launcher.serialize.config.entry.BlockConfigEntry;
 import launcher.serialize.config.entry.StringConfigEntry;
 import launchserver.auth.provider.AuthProviderResult;
 import launchserver.auth.provider.AuthlibAuthProviderResult;
+import launchserver.helpers.HTTPClient;
 import launchserver.helpers.HTTPRequestHelper;
 
 import java.io.IOException;
@@ -22,8 +23,11 @@ public class AuthlibAuthHandler extends AuthHandler {
 
     public final HashMap<String, UUID> usernameToUUID = new HashMap<>();
 
+    private final HTTPClient client;
+
     AuthlibAuthHandler(BlockConfigEntry block) {
         super(block);
+        client = HTTPClient.fromConfig("Authlib session", block);
         joinUrl = block.getEntryValue("joinUrl", StringConfigEntry.class);
         hasJoinUrl = block.getEntryValue("hasJoinUrl", StringConfigEntry.class);
 
@@ -53,7 +57,7 @@ public class AuthlibAuthHandler extends AuthHandler {
         JsonObject uuidResponse;
         try {
             URL uuidURL = new URL(URL_hasJoin + "?username=" + IOHelper.urlEncode(username) + "&serverId=" + IOHelper.urlEncode(serverID));
-            uuidResponse = HTTPRequestHelper.makeAuthlibRequest(uuidURL, null, "Authlib");
+            uuidResponse = HTTPRequestHelper.makeAuthlibRequest(client, uuidURL, null, "Authlib");
         } catch (IOException e) {
             throw new IllegalArgumentException("Empty UUID response");
         }
@@ -77,7 +81,7 @@ public class AuthlibAuthHandler extends AuthHandler {
                 add("selectedProfile", usernameToUUID(username).toString().replace("-", "")).
                 add("serverId", serverID);
 
-        int response = HTTPRequestHelper.authJoinRequest(URL_join, request, "AuthLib");
+        int response = HTTPRequestHelper.authJoinRequest(client, URL_join, request, "AuthLib");
 
         if (200 <= response && response < 300) {
             return true;
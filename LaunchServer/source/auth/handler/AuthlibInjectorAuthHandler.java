@@ -7,6 +7,7 @@ import launcher.serialize.config.entry.BlockConfigEntry;
 import launcher.serialize.config.entry.StringConfigEntry;
 import launchserver.auth.provider.AuthProviderResult;
 import launchserver.auth.provider.AuthlibAuthProviderResult;
+import launchserver.helpers.HTTPClient;
 import launchserver.helpers.HTTPRequestHelper;
 
 import java.io.IOException;
@@ -22,8 +23,11 @@ public class AuthlibInjectorAuthHandler extends AuthHandler {
 
     public final HashMap<String, UUID> usernameToUUID = new HashMap<>();
 
+    private final HTTPClient client;
+
     AuthlibInjectorAuthHandler(BlockConfigEntry block) {
         super(block);
+        client = HTTPClient.fromConfig("Authlib-Injector session", block);
         urlApiInjector = block.getEntryValue("urlApiInjector", StringConfigEntry.class);
 
         try {
@@ -49,7 +53,7 @@ public class AuthlibInjectorAuthHandler extends AuthHandler {
         JsonObject uuidResponse;
         try {
             URL uuidURL = new URL(URL_hasJoin + "?username=" + IOHelper.urlEncode(username) + "&serverId=" + IOHelper.urlEncode(serverID));
-            uuidResponse = HTTPRequestHelper.makeAuthlibRequest(uuidURL, null, "Authlib-Injector");
+            uuidResponse = HTTPRequestHelper.makeAuthlibRequest(client, uuidURL, null, "Authlib-Injector");
         } catch (IOException e) {
             throw new IllegalArgumentException("Empty UUID response");
         }
@@ -73,7 +77,7 @@ public class AuthlibInjectorAuthHandler extends AuthHandler {
                 add("selectedProfile", usernameToUUID(username).toString().replace("-", "")).
                 add("serverId", serverID);
 
-        int response = HTTPRequestHelper.authJoinRequest(URL_join, request, "AuthLib");
+        int response = HTTPRequestHelper.authJoinRequest(client, URL_join, request, "AuthLib");
 
         if (200 <= response && response < 300) {
             return true;
@@ -2,126 +2,589 @@ package launchserver.auth.handler;
 
 import launcher.LauncherAPI;
 import launcher.helper.CommonHelper;
+import launcher.helper.LogHelper;
 import launcher.helper.SecurityHelper;
+import launcher.helper.VerifyHelper;
 import launcher.request.auth.JoinServerRequest;
 import launcher.serialize.config.entry.BlockConfigEntry;
+import launcher.serialize.config.entry.BooleanConfigEntry;
+import launcher.serialize.config.entry.IntegerConfigEntry;
+import launcher.serialize.config.entry.StringConfigEntry;
 import launchserver.auth.provider.AuthProviderResult;
+import launchserver.auth.session.MemorySessionStore;
+import launchserver.auth.session.SessionStore;
+import launchserver.helpers.BoundedCache;
 
 import java.io.IOException;
-import java.util.HashMap;
-import java.util.Map;
-import java.util.Objects;
-import java.util.UUID;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 public abstract class CachedAuthHandler extends AuthHandler {
-    private final Map<UUID, Entry> entryCache = new HashMap<>(1024);
-    private final Map<String, UUID> usernamesCache = new HashMap<>(1024);
+    private static final long MAX_FLUSH_WAIT = 10L;
+    private static final long MAX_FLUSH_BACKOFF = 30000L;
+    private static final int MAX_UPDATE_ATTEMPTS = 3;
+
+    private final BoundedCache<UUID, Entry> entryCache;
+    private final BoundedCache<String, UUID> usernamesCache;
+    private final Map<Object, CompletableFuture<Entry>> loading = new ConcurrentHashMap<>(16);
+    private final SessionStore sessions; // null if server ID is stored by handler
+
+    // Write-behind (null if updates are written immediately)
+    private final Map<UUID, PendingUpdate> pending;
+    private final ScheduledThreadPoolExecutor flusher;
+    private final long writeBehindInterval;
+    private final int writeBehindBatchSize;
+    private final int writeBehindMaxPending;
+    private final AtomicBoolean flushQueued = new AtomicBoolean(false);
+    private final Object flushLock = new Object();
+    private volatile long flushSeq; // Bumped before written updates leave pending map
+    private long flushBackoff; // Guarded by flushLock
+    private long flushRetryAt;
 
     @LauncherAPI
     protected CachedAuthHandler(BlockConfigEntry block) {
         super(block);
+        int cacheSize = block.hasEntry("cacheSize") ? VerifyHelper.verifyInt(block.getEntryValue("cacheSize",
+                IntegerConfigEntry.class), VerifyHelper.POSITIVE, "cacheSize can't be <= 0") : 10000;
+        long expireAfterWrite = block.hasEntry("cacheExpireAfterWrite") ? VerifyHelper.verifyInt(block.getEntryValue(
+                "cacheExpireAfterWrite", IntegerConfigEntry.class), VerifyHelper.NOT_NEGATIVE, "cacheExpireAfterWrite can't be < 0") : 0;
+        long expireAfterAccess = block.hasEntry("cacheExpireAfterAccess") ? VerifyHelper.verifyInt(block.getEntryValue(
+                "cacheExpireAfterAccess", IntegerConfigEntry.class), VerifyHelper.NOT_NEGATIVE, "cacheExpireAfterAccess can't be < 0") : 3600;
+
+        // Seconds in config, 0 disables expiry
+        entryCache = new BoundedCache<>(cacheSize, expireAfterWrite * 1000L, expireAfterAccess * 1000L);
+        usernamesCache = new BoundedCache<>(cacheSize, expireAfterWrite * 1000L, expireAfterAccess * 1000L);
+
+        // Server ID lives only until checkServer, so it may skip the database
+        String serverIDStore = block.hasEntry("serverIDStore") ? block.getEntryValue("serverIDStore", StringConfigEntry.class) : "database";
+        switch (serverIDStore) {
+            case "database":
+                sessions = null;
+                break;
+            case "memory":
+                long serverIDTTL = block.hasEntry("serverIDTTL") ? VerifyHelper.verifyInt(block.getEntryValue("serverIDTTL",
+                        IntegerConfigEntry.class), VerifyHelper.POSITIVE, "serverIDTTL can't be <= 0") : 60;
+                sessions = new MemorySessionStore(cacheSize, serverIDTTL * 1000L);
+                break;
+            default:
+                throw new IllegalArgumentException(String.format("Unknown serverIDStore: '%s'", serverIDStore));
+        }
+
+        // Coalesce updates per UUID and write them in batches
+        if (block.hasEntry("writeBehind") && block.getEntryValue("writeBehind", BooleanConfigEntry.class)) {
+            writeBehindInterval = block.hasEntry("writeBehindInterval") ? VerifyHelper.verifyInt(block.getEntryValue("writeBehindInterval",
+                    IntegerConfigEntry.class), VerifyHelper.POSITIVE, "writeBehindInterval can't be <= 0") : 200;
+            writeBehindBatchSize = block.hasEntry("writeBehindBatchSize") ? VerifyHelper.verifyInt(block.getEntryValue("writeBehindBatchSize",
+                    IntegerConfigEntry.class), VerifyHelper.POSITIVE, "writeBehindBatchSize can't be <= 0") : 100;
+            writeBehindMaxPending = block.hasEntry("writeBehindMaxPending") ? VerifyHelper.verifyInt(block.getEntryValue("writeBehindMaxPending",
+                    IntegerConfigEntry.class), VerifyHelper.POSITIVE, "writeBehindMaxPending can't be <= 0") : writeBehindBatchSize * 100;
+            pending = new ConcurrentHashMap<>(16);
+            flusher = new ScheduledThreadPoolExecutor(1, r -> CommonHelper.newThread("Auth Write-Behind Thread", true, r));
+            flusher.scheduleWithFixedDelay(() -> flush(false), writeBehindInterval, writeBehindInterval, TimeUnit.MILLISECONDS);
+        } else {
+            writeBehindInterval = 0;
+            writeBehindBatchSize = 0;
+            writeBehindMaxPending = 0;
+            pending = null;
+            flusher = null;
+        }
     }
 
     @Override
-    public synchronized UUID auth(AuthProviderResult result) throws IOException {
+    public void close() {
+        if (flusher != null) {
+            flusher.shutdown();
+            try {
+                flusher.awaitTermination(MAX_FLUSH_WAIT, TimeUnit.SECONDS);
+            } catch (InterruptedException ignored) {
+                Thread.currentThread().interrupt();
+            }
+            flush(true); // Last chance before connections are closed
+        }
+    }
+
+    @Override
+    public UUID auth(AuthProviderResult result) throws IOException {
         Entry entry = getEntry(result.username);
-        if (entry == null || !updateAuth(entry.uuid, entry.username, result.accessToken)) {
+        if (entry == null) {
             return authError(String.format("UUID is null for username '%s'", result.username));
         }
 
-        // Update cached access token (and username case)
-        entry.username = result.username;
-        entry.accessToken = result.accessToken;
-        entry.serverID = null;
+        // Entry lock keeps DB and cached state in the same order, other players aren't blocked
+        synchronized (entry) {
+            if (!writeAuth(entry.uuid, entry.username, result.accessToken)) {
+                return authError(String.format("UUID is null for username '%s'", result.username));
+            }
+
+            // Update cached access token (and username case)
+            entry.username = result.username;
+            entry.accessToken = result.accessToken;
+            entry.serverID = null;
+        }
+        if (sessions != null) {
+            sessions.invalidate(entry.username);
+        }
         return entry.uuid;
     }
 
     @Override
-    public synchronized UUID checkServer(String username, String serverID) throws IOException {
+    public UUID checkServer(String username, String serverID) throws IOException {
+        if (sessions != null) {
+            return sessions.check(username, serverID);
+        }
         Entry entry = getEntry(username);
         return entry != null && username.equals(entry.username) &&
                 serverID.equals(entry.serverID) ? entry.uuid : null;
     }
 
     @Override
-    public synchronized boolean joinServer(String username, String accessToken, String serverID) throws IOException {
+    public boolean joinServer(String username, String accessToken, String serverID) throws IOException {
         Entry entry = getEntry(username);
-        if (entry == null || !username.equals(entry.username) || !accessToken.equals(entry.accessToken) ||
-                !updateServerID(entry.uuid, serverID)) {
-            return false; // Account doesn't exist or invalid access token
+        if (entry == null) {
+            return false; // Account doesn't exist
         }
+        synchronized (entry) {
+            if (!username.equals(entry.username) || !accessToken.equals(entry.accessToken)) {
+                return false; // Invalid access token
+            }
+            if (sessions != null) {
+                sessions.join(entry.uuid, entry.username, serverID);
+                return true;
+            }
+            if (!writeServerID(entry.uuid, serverID)) {
+                return false;
+            }
 
-        // Update cached server ID
-        entry.serverID = serverID;
+            // Update cached server ID
+            entry.serverID = serverID;
+        }
         return true;
     }
 
     @Override
-    public synchronized UUID usernameToUUID(String username) throws IOException {
+    public UUID usernameToUUID(String username) throws IOException {
         Entry entry = getEntry(username);
         return entry == null ? null : entry.uuid;
     }
 
     @Override
-    public synchronized String uuidToUsername(UUID uuid) throws IOException {
+    public String uuidToUsername(UUID uuid) throws IOException {
         Entry entry = getEntry(uuid);
         return entry == null ? null : entry.username;
     }
 
+    @Override
+    public UUID[] usernamesToUUIDs(String... usernames) throws IOException {
+        UUID[] uuids = new UUID[usernames.length];
+        Map<String, String> misses = new LinkedHashMap<>(16);
+        for (int i = 0; i < usernames.length; i++) {
+            String key = CommonHelper.low(usernames[i]);
+            UUID uuid = usernamesCache.get(key);
+            if (uuid != null && entryCache.get(uuid) != null) {
+                uuids[i] = uuid;
+            } else {
+                misses.putIfAbsent(key, usernames[i]);
+            }
+        }
+        if (misses.isEmpty()) {
+            return uuids;
+        }
+
+        // Fetch all missing entries at once, cached ones are newer
+        Collection<Entry> entries;
+        long seq;
+        do {
+            seq = flushSeq;
+            entries = fetchEntries(misses.values());
+            for (Entry entry : entries) {
+                applyPending(entry);
+            }
+        } while (seq != flushSeq); // See fetchFresh()
+        Map<String, UUID> fetched = new HashMap<>(misses.size());
+        for (Entry entry : entries) {
+            entry = cacheEntry(entry);
+            fetched.put(CommonHelper.low(entry.username), entry.uuid);
+        }
+        for (int i = 0; i < usernames.length; i++) {
+            if (uuids[i] == null) {
+                uuids[i] = fetched.get(CommonHelper.low(usernames[i]));
+            }
+        }
+        return uuids;
+    }
+
+    @LauncherAPI
+    public final String getCacheStats() {
+        String stats = String.format("entries: %s; usernames: %s", entryCache, usernamesCache);
+        if (sessions != null) {
+            stats += String.format("; sessions: %s", sessions);
+        }
+        if (pending != null) {
+            stats += String.format("; pending writes: %d", pending.size());
+        }
+        return stats;
+    }
+
     @LauncherAPI
     protected abstract Entry fetchEntry(UUID uuid) throws IOException;
 
     @LauncherAPI
     protected abstract Entry fetchEntry(String username) throws IOException;
 
+    // Unknown usernames are just missing from result
+    @LauncherAPI
+    protected Collection<Entry> fetchEntries(Collection<String> usernames) throws IOException {
+        Collection<Entry> entries = new ArrayList<>(usernames.size());
+        for (String username : usernames) {
+            Entry entry = fetchEntry(username);
+            if (entry != null) {
+                entries.add(entry);
+            }
+        }
+        return entries;
+    }
+
     @LauncherAPI
     protected abstract boolean updateAuth(UUID uuid, String username, String accessToken) throws IOException;
 
     @LauncherAPI
     protected abstract boolean updateServerID(UUID uuid, String serverID) throws IOException;
 
+    // Called from write-behind thread only, pending updates are coalesced per UUID
+    @LauncherAPI
+    protected void updateBatch(Collection<PendingUpdate> updates) throws IOException {
+        for (PendingUpdate update : updates) {
+            if (update.isAuthUpdated()) {
+                updateAuth(update.uuid, update.username, update.accessToken);
+            }
+            if (update.serverIDUpdated) {
+                updateServerID(update.uuid, update.serverID);
+            }
+        }
+    }
+
     @LauncherAPI
     protected void addEntry(Entry entry) {
         Entry previous = entryCache.put(entry.uuid, entry);
         if (previous != null) { // In case of username changing
-            usernamesCache.remove(CommonHelper.low(previous.username));
+            usernamesCache.remove(CommonHelper.low(previous.username), entry.uuid);
+            if (!previous.username.equals(entry.username)) {
+                onUsernameChanged(entry.uuid);
+            }
         }
         usernamesCache.put(CommonHelper.low(entry.username), entry.uuid);
     }
 
-    private Entry getEntry(UUID uuid) throws IOException {
-        Entry entry = entryCache.get(uuid);
-        if (entry == null) {
-            entry = fetchEntry(uuid);
-            if (entry != null) {
-                addEntry(entry);
+    // Fetch may have read the row before auth() updated cached entry, so cached one is kept
+    private Entry cacheEntry(Entry entry) {
+        Entry cached = entryCache.putIfAbsent(entry.uuid, entry);
+        if (cached == null) {
+            usernamesCache.put(CommonHelper.low(entry.username), entry.uuid);
+            return entry;
+        }
+
+        // Only username renamed in database is taken from fetched entry
+        synchronized (cached) {
+            String username = CommonHelper.low(entry.username);
+            if (!CommonHelper.low(cached.username).equals(username)) {
+                usernamesCache.remove(CommonHelper.low(cached.username), cached.uuid);
+                cached.username = entry.username;
+                usernamesCache.put(username, cached.uuid);
+                onUsernameChanged(cached.uuid);
             }
         }
-        return entry;
+        return cached;
+    }
+
+    // Requested usernames without fetched entry, compared case-insensitively like lookups
+    static Collection<String> getMissing(Collection<String> usernames, Collection<Entry> entries) {
+        Set<String> found = new HashSet<>(entries.size());
+        for (Entry entry : entries) {
+            found.add(CommonHelper.low(entry.username));
+        }
+        Collection<String> missing = new ArrayList<>(0);
+        for (String username : usernames) {
+            if (!found.contains(CommonHelper.low(username))) {
+                missing.add(username);
+            }
+        }
+        return missing;
+    }
+
+    // Padded to power of two with last value, so there are few distinct IN (...) statements to prepare
+    static String[] toBatch(Collection<String> values) {
+        String[] batch = new String[values.size() <= 1 ? values.size() : Integer.highestOneBit(values.size() - 1) << 1];
+        Iterator<String> iterator = values.iterator();
+        for (int i = 0; i < batch.length; i++) {
+            batch[i] = iterator.hasNext() ? iterator.next() : batch[i - 1];
+        }
+        return batch;
+    }
+
+    private Entry getEntry(UUID uuid) throws IOException {
+        Entry entry = entryCache.get(uuid);
+        return entry == null ? load(uuid, () -> fetchEntry(uuid)) : entry;
     }
 
     private Entry getEntry(String username) throws IOException {
-        UUID uuid = usernamesCache.get(CommonHelper.low(username));
+        String key = CommonHelper.low(username);
+        UUID uuid = usernamesCache.get(key);
         if (uuid != null) {
             return getEntry(uuid);
         }
 
         // Fetch entry by username
-        Entry entry = fetchEntry(username);
-        if (entry != null) {
-            addEntry(entry);
+        return load(key, () -> fetchEntry(username));
+    }
+
+    private Entry load(Object key, Fetcher fetcher) throws IOException {
+        CompletableFuture<Entry> future = new CompletableFuture<>();
+        CompletableFuture<Entry> loadingFuture = loading.putIfAbsent(key, future);
+        if (loadingFuture != null) {
+            return await(loadingFuture); // Someone is already fetching same entry
         }
 
-        // Return what we got
+        // Fetch entry and wake up waiting threads
+        try {
+            Entry entry = fetchFresh(fetcher);
+            if (entry != null) {
+                entry = cacheEntry(entry);
+            }
+            future.complete(entry);
+            return entry;
+        } catch (IOException | RuntimeException e) {
+            future.completeExceptionally(e);
+            throw e;
+        } finally {
+            loading.remove(key, future);
+        }
+    }
+
+    private Entry fetchFresh(Fetcher fetcher) throws IOException {
+        // Flush may write and drop pending update after entry was read, but before it was applied.
+        // Counter is bumped before such drop, so unchanged counter means nothing was lost
+        long seq;
+        Entry entry;
+        do {
+            seq = flushSeq;
+            entry = fetcher.fetch();
+            if (entry != null) {
+                applyPending(entry);
+            }
+        } while (seq != flushSeq);
         return entry;
     }
 
+    // Entry was just read from database, so queued write will find its row
+    private boolean writeAuth(UUID uuid, String username, String accessToken) throws IOException {
+        if (pending == null || isQueueFull(uuid)) {
+            return updateAuth(uuid, username, accessToken);
+        }
+        enqueue(new PendingUpdate(uuid, username, accessToken, false, null));
+        return true;
+    }
+
+    private boolean writeServerID(UUID uuid, String serverID) throws IOException {
+        if (pending == null || isQueueFull(uuid)) {
+            return updateServerID(uuid, serverID);
+        }
+        enqueue(new PendingUpdate(uuid, null, null, true, serverID));
+        return true;
+    }
+
+    private boolean isQueueFull(UUID uuid) {
+        // Write synchronously while database can't keep up, queued update of same UUID is still coalesced
+        return pending.size() >= writeBehindMaxPending && !pending.containsKey(uuid);
+    }
+
+    private void enqueue(PendingUpdate update) {
+        pending.merge(update.uuid, update, PendingUpdate::merge);
+        if (pending.size() >= writeBehindBatchSize && flushQueued.compareAndSet(false, true)) {
+            try {
+                flusher.execute(() -> {
+                    flushQueued.set(false);
+                    flush(false);
+                });
+            } catch (RejectedExecutionException ignored) {
+                flushQueued.set(false); // Closing, will be flushed there
+            }
+        }
+    }
+
+    private void applyPending(Entry entry) {
+        // Database may be behind the cache, don't let refetch lose unwritten updates
+        PendingUpdate update = pending == null ? null : pending.get(entry.uuid);
+        if (update != null) {
+            if (update.isAuthUpdated()) {
+                entry.username = update.username;
+                entry.accessToken = update.accessToken;
+                entry.serverID = null;
+            }
+            if (update.serverIDUpdated) {
+                entry.serverID = update.serverID;
+            }
+        }
+    }
+
+    private void flush(boolean force) {
+        synchronized (flushLock) {
+            long now = System.currentTimeMillis();
+            if (!force && now < flushRetryAt) {
+                return; // Database was unavailable, wait a bit
+            }
+
+            // Write in batches, stop if database is unavailable
+            boolean available = true;
+            List<PendingUpdate> batch = new ArrayList<>(Math.min(pending.size(), writeBehindBatchSize));
+            for (PendingUpdate update : pending.values()) {
+                batch.add(update);
+                if (batch.size() >= writeBehindBatchSize) {
+                    available = writeBatch(batch);
+                    batch.clear();
+                    if (!available) {
+                        break;
+                    }
+                }
+            }
+            if (available && !batch.isEmpty()) {
+                available = writeBatch(batch);
+            }
+
+            // Back off exponentially while database is unavailable
+            if (available) {
+                flushBackoff = 0L;
+            } else {
+                flushBackoff = flushBackoff == 0L ? writeBehindInterval : Math.min(flushBackoff * 2, MAX_FLUSH_BACKOFF);
+                flushRetryAt = now + flushBackoff;
+            }
+        }
+    }
+
+    private boolean writeBatch(List<PendingUpdate> batch) {
+        try {
+            updateBatch(batch);
+            written(batch);
+            return true;
+        } catch (Throwable exc) {
+            LogHelper.error(exc);
+        }
+
+        // Find updates which break the batch, write others one by one
+        List<PendingUpdate> done = new ArrayList<>(batch.size());
+        List<PendingUpdate> failed = new ArrayList<>(batch.size());
+        for (PendingUpdate update : batch) {
+            try {
+                if (!writeSingle(update)) {
+                    LogHelper.warning("Dropping pending update of '%s': no such row", update.uuid);
+                    entryCache.invalidate(update.uuid); // Cached state doesn't exist anymore
+                }
+                done.add(update);
+            } catch (Throwable exc) {
+                failed.add(update);
+            }
+        }
+        written(done);
+        if (done.isEmpty()) {
+            return false; // Nothing could be written, it's not the updates
+        }
+
+        // Drop updates that fail on their own, so they don't block queue forever
+        for (PendingUpdate update : failed) {
+            if (++update.attempts >= MAX_UPDATE_ATTEMPTS && pending.remove(update.uuid, update)) {
+                LogHelper.error("Dropping pending update of '%s' after %d failed attempts", update.uuid, update.attempts);
+                entryCache.invalidate(update.uuid); // Database still has previous state
+            }
+        }
+        return true;
+    }
+
+    private boolean writeSingle(PendingUpdate update) throws IOException {
+        boolean found = true;
+        if (update.isAuthUpdated()) {
+            found = updateAuth(update.uuid, update.username, update.accessToken);
+        }
+        if (found && update.serverIDUpdated) {
+            found = updateServerID(update.uuid, update.serverID);
+        }
+        return found;
+    }
+
+    private void written(List<PendingUpdate> updates) {
+        if (updates.isEmpty()) {
+            return;
+        }
+
+        // Keep updates that were superseded while writing
+        flushSeq++;
+        for (PendingUpdate update : updates) {
+            pending.remove(update.uuid, update);
+        }
+    }
+
+    private static Entry await(CompletableFuture<Entry> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException(e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IOException(cause);
+        }
+    }
+
+    @FunctionalInterface
+    private interface Fetcher {
+        Entry fetch() throws IOException;
+    }
+
+    public static final class PendingUpdate {
+        @LauncherAPI
+        public final UUID uuid;
+        @LauncherAPI
+        public final String username; // null if auth isn't updated
+        @LauncherAPI
+        public final String accessToken;
+        @LauncherAPI
+        public final boolean serverIDUpdated;
+        @LauncherAPI
+        public final String serverID;
+        private int attempts; // Guarded by flush lock
+
+        private PendingUpdate(UUID uuid, String username, String accessToken, boolean serverIDUpdated, String serverID) {
+            this.uuid = uuid;
+            this.username = username;
+            this.accessToken = accessToken;
+            this.serverIDUpdated = serverIDUpdated;
+            this.serverID = serverID;
+        }
+
+        @LauncherAPI
+        public boolean isAuthUpdated() {
+            return username != null;
+        }
+
+        private static PendingUpdate merge(PendingUpdate older, PendingUpdate newer) {
+            if (newer.isAuthUpdated()) {
+                return newer; // Auth update resets server ID anyway
+            }
+            return new PendingUpdate(older.uuid, older.username, older.accessToken, true, newer.serverID);
+        }
+    }
+
     public static final class Entry {
         @LauncherAPI
         public final UUID uuid;
-        private String username;
-        private String accessToken;
-        private String serverID;
+        private volatile String username;
+        private volatile String accessToken;
+        private volatile String serverID;
 
         @LauncherAPI
         public Entry(UUID uuid, String username, String accessToken, String serverID) {
@@ -49,6 +49,11 @@ public class DelegateAuthHandler extends AuthHandler {
         return getDelegate().uuidToUsername(uuid);
     }
 
+    @Override
+    public UUID[] usernamesToUUIDs(String... usernames) throws IOException {
+        return getDelegate().usernamesToUUIDs(usernames);
+    }
+
     private AuthHandler getDelegate() {
         return VerifyHelper.verify_1(delegate, Objects::nonNull, "Delegate auth handler wasn't set");
     }
@@ -6,6 +6,7 @@ import launcher.helper.IOHelper;
 import launcher.serialize.config.entry.BlockConfigEntry;
 import launchserver.auth.provider.AuthProviderResult;
 import launchserver.auth.provider.AuthlibAuthProviderResult;
+import launchserver.helpers.HTTPClient;
 import launchserver.helpers.HTTPRequestHelper;
 
 import java.io.IOException;
@@ -29,8 +30,11 @@ public class ElyByAuthHandler extends AuthHandler {
 
     public final HashMap<String, UUID> usernameToUUID = new HashMap<>();
 
+    private final HTTPClient client;
+
     ElyByAuthHandler(BlockConfigEntry block) {
         super(block);
+        client = HTTPClient.fromConfig("ElyBy session", block);
     }
 
     @Override
@@ -48,7 +52,7 @@ public class ElyByAuthHandler extends AuthHandler {
         JsonObject uuidResponse;
         try {
             URL uuidURL = new URL(URL_hasJoin + "?username=" + IOHelper.urlEncode(username) + "&serverId=" + IOHelper.urlEncode(serverID));
-            uuidResponse = HTTPRequestHelper.makeAuthlibRequest(uuidURL, null, "ElyBy");
+            uuidResponse = HTTPRequestHelper.makeAuthlibRequest(client, uuidURL, null, "ElyBy");
         } catch (IOException e) {
             throw new IllegalArgumentException("Empty UUID response");
         }
@@ -72,7 +76,7 @@ public class ElyByAuthHandler extends AuthHandler {
                 add("selectedProfile", usernameToUUID(username).toString().replace("-", "")).
                 add("serverId", serverID);
 
-        int response = HTTPRequestHelper.authJoinRequest(URL_join, request, "ElyBy");
+        int response = HTTPRequestHelper.authJoinRequest(client, URL_join, request, "ElyBy");
 
         if (200 <= response && response < 300) {
             return true;
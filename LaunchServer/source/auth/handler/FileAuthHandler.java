@@ -27,7 +27,6 @@ public abstract class FileAuthHandler extends AuthHandler {
     public final boolean offlineUUIDs;
 
     // Instance
-    private final SecureRandom random = SecurityHelper.newRandom();
     private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
 
     // Storage
@@ -172,6 +171,7 @@ public abstract class FileAuthHandler extends AuthHandler {
         // Pick random UUID
         UUID uuid;
         do {
+            SecureRandom random = SecurityHelper.threadRandom();
             uuid = new UUID(random.nextLong(), random.nextLong());
         }
         while (entryMap.containsKey(uuid));
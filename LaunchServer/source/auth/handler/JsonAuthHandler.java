@@ -7,18 +7,17 @@ import launcher.helper.IOHelper;
 import launcher.helper.VerifyHelper;
 import launcher.serialize.config.entry.BlockConfigEntry;
 import launcher.serialize.config.entry.StringConfigEntry;
+import launchserver.helpers.HTTPClient;
 
 import java.io.IOException;
-import java.io.InputStreamReader;
-import java.io.OutputStreamWriter;
-import java.net.HttpURLConnection;
 import java.net.URL;
 import java.nio.charset.StandardCharsets;
+import java.util.Collections;
 import java.util.UUID;
 
 public class JsonAuthHandler extends CachedAuthHandler {
 
-    private static final int TIMEOUT = 10;
+    private final HTTPClient client;
     private final URL url;
     private final URL urlCheckServer;
     private final URL urlJoinServer;
@@ -50,6 +49,7 @@ public class JsonAuthHandler extends CachedAuthHandler {
                 VerifyHelper.NOT_EMPTY, "Response username key can't be empty");
         responseErrorKeyName = VerifyHelper.verify_1(block.getEntryValue("responseErrorKeyName", StringConfigEntry.class),
                 VerifyHelper.NOT_EMPTY, "Response error key can't be empty");
+        client = HTTPClient.fromConfig("Json session", block);
         url = IOHelper.convertToURL(configUrl);
         urlCheckServer = IOHelper.convertToURL(configUrlCheckServer);
         urlJoinServer = IOHelper.convertToURL(configUrlJoinServer);
@@ -70,7 +70,7 @@ public class JsonAuthHandler extends CachedAuthHandler {
 
     @Override
     public void close() {
-
+        super.close();
     }
 
     @Override
@@ -109,30 +109,9 @@ public class JsonAuthHandler extends CachedAuthHandler {
     }
 
     public JsonObject jsonRequest(JsonObject request, URL url) throws IOException {
-        HttpURLConnection connection = (HttpURLConnection) url.openConnection();
-        connection.setDoInput(true);
-        connection.setDoOutput(true);
-        connection.setRequestMethod("POST");
-        connection.setRequestProperty("Content-Type", "application/json; charset=UTF-8");
-        connection.setRequestProperty("Accept", "application/json");
-        if (TIMEOUT > 0) {
-            connection.setConnectTimeout(TIMEOUT);
-        }
-
-        OutputStreamWriter writer = new OutputStreamWriter(connection.getOutputStream(), StandardCharsets.UTF_8);
-        writer.write(request.toString());
-        writer.flush();
-        writer.close();
-
-        InputStreamReader reader;
-        int statusCode = connection.getResponseCode();
-
-        if (200 <= statusCode && statusCode < 300) {
-            reader = new InputStreamReader(connection.getInputStream(), StandardCharsets.UTF_8);
-        } else {
-            reader = new InputStreamReader(connection.getErrorStream(), StandardCharsets.UTF_8);
-        }
-        JsonValue content = Json.parse(reader);
+        HTTPClient.Response httpResponse = client.send(url, "POST", "application/json; charset=UTF-8",
+                request.toString().getBytes(StandardCharsets.UTF_8), Collections.singletonMap("Accept", "application/json"));
+        JsonValue content = Json.parse(new String(httpResponse.body, StandardCharsets.UTF_8));
         if (!content.isObject()) {
             authError("Authentication server response is malformed");
         }
@@ -6,6 +6,7 @@ import launcher.helper.IOHelper;
 import launcher.serialize.config.entry.BlockConfigEntry;
 import launchserver.auth.provider.AuthProviderResult;
 import launchserver.auth.provider.AuthlibAuthProviderResult;
+import launchserver.helpers.HTTPClient;
 import launchserver.helpers.HTTPRequestHelper;
 
 import java.io.IOException;
@@ -29,8 +30,11 @@ public class MojangAuthHandler extends AuthHandler {
 
     public final HashMap<String, UUID> usernameToUUID = new HashMap<>();
 
+    private final HTTPClient client;
+
     MojangAuthHandler(BlockConfigEntry block) {
         super(block);
+        client = HTTPClient.fromConfig("Mojang session", block);
     }
 
     @Override
@@ -48,7 +52,7 @@ public class MojangAuthHandler extends AuthHandler {
         JsonObject uuidResponse;
         try {
             URL uuidURL = new URL(URL_hasJoin + "?username=" + IOHelper.urlEncode(username) + "&serverId=" + IOHelper.urlEncode(serverID));
-            uuidResponse = HTTPRequestHelper.makeAuthlibRequest(uuidURL, null, "Mojang");
+            uuidResponse = HTTPRequestHelper.makeAuthlibRequest(client, uuidURL, null, "Mojang");
         } catch (IOException e) {
             throw new IllegalArgumentException("Empty UUID response");
         }
@@ -72,7 +76,7 @@ public class MojangAuthHandler extends AuthHandler {
                 add("selectedProfile", usernameToUUID(username).toString().replace("-", "")).
                 add("serverId", serverID);
 
-        int response = HTTPRequestHelper.authJoinRequest(URL_join, request, "Mojang");
+        int response = HTTPRequestHelper.authJoinRequest(client, URL_join, request, "Mojang");
 
         if (200 <= response && response < 300) {
             return true;
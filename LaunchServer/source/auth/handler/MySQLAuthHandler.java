@@ -10,6 +10,9 @@ import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.UUID;
 
 public final class MySQLAuthHandler extends CachedAuthHandler {
@@ -22,6 +25,7 @@ public final class MySQLAuthHandler extends CachedAuthHandler {
     // Prepared SQL queries
     private final String queryByUUIDSQL;
     private final String queryByUsernameSQL;
+    private final String queryByUsernamesSQL;
     private final String updateAuthSQL;
     private final String updateServerIDSQL;
 
@@ -46,6 +50,8 @@ public final class MySQLAuthHandler extends CachedAuthHandler {
                 uuidColumn, usernameColumn, accessTokenColumn, serverIDColumn, table, uuidColumn);
         queryByUsernameSQL = String.format("SELECT %s, %s, %s, %s FROM %s WHERE %s=? LIMIT 1",
                 uuidColumn, usernameColumn, accessTokenColumn, serverIDColumn, table, usernameColumn);
+        queryByUsernamesSQL = String.format("SELECT %s, %s, %s, %s FROM %s WHERE %s IN (%%s)",
+                uuidColumn, usernameColumn, accessTokenColumn, serverIDColumn, table, usernameColumn);
         updateAuthSQL = String.format("UPDATE %s SET %s=?, %s=?, %s=NULL WHERE %s=? LIMIT 1",
                 table, usernameColumn, accessTokenColumn, serverIDColumn, uuidColumn);
         updateServerIDSQL = String.format("UPDATE %s SET %s=? WHERE %s=? LIMIT 1",
@@ -54,6 +60,7 @@ public final class MySQLAuthHandler extends CachedAuthHandler {
 
     @Override
     public void close() {
+        super.close(); // Flush pending writes first
         mySQLHolder.close();
     }
 
@@ -67,6 +74,23 @@ public final class MySQLAuthHandler extends CachedAuthHandler {
         return query(queryByUUIDSQL, uuid.toString());
     }
 
+    @Override
+    protected Collection<Entry> fetchEntries(Collection<String> usernames) throws IOException {
+        try {
+            // Names missing on replica may be not replicated yet, only they are asked from primary
+            return mySQLHolder.read(c -> queryEntries(c, usernames), entries -> {
+                Collection<String> missing = getMissing(usernames, entries);
+                return missing.isEmpty() ? null : c -> {
+                    Collection<Entry> rest = queryEntries(c, missing);
+                    rest.addAll(entries);
+                    return rest;
+                };
+            });
+        } catch (SQLException e) {
+            throw new IOException(e);
+        }
+    }
+
     @Override
     protected boolean updateAuth(UUID uuid, String username, String accessToken) throws IOException {
         try (Connection c = mySQLHolder.getConnection(); PreparedStatement s = c.prepareStatement(updateAuthSQL)) {
@@ -96,20 +120,73 @@ public final class MySQLAuthHandler extends CachedAuthHandler {
         }
     }
 
+    @Override
+    protected void updateBatch(Collection<PendingUpdate> updates) throws IOException {
+        try (Connection c = mySQLHolder.getConnection();
+             PreparedStatement auth = c.prepareStatement(updateAuthSQL);
+             PreparedStatement server = c.prepareStatement(updateServerIDSQL)) {
+            for (PendingUpdate update : updates) {
+                if (update.isAuthUpdated()) {
+                    auth.setString(1, update.username);
+                    auth.setString(2, update.accessToken);
+                    auth.setString(3, update.uuid.toString());
+                    auth.addBatch();
+                }
+                if (update.serverIDUpdated) {
+                    server.setString(1, update.serverID);
+                    server.setString(2, update.uuid.toString());
+                    server.addBatch();
+                }
+            }
+
+            // Auth batch goes first, it resets server ID
+            auth.setQueryTimeout(MySQLSourceConfig.TIMEOUT);
+            auth.executeBatch();
+            server.setQueryTimeout(MySQLSourceConfig.TIMEOUT);
+            server.executeBatch();
+        } catch (SQLException e) {
+            throw new IOException(e);
+        }
+    }
+
     private Entry constructEntry(ResultSet set) throws SQLException {
         return set.next() ? new Entry(UUID.fromString(set.getString(uuidColumn)), set.getString(usernameColumn),
                 set.getString(accessTokenColumn), set.getString(serverIDColumn)) : null;
     }
 
-    private Entry query(String sql, String value) throws IOException {
-        try (Connection c = mySQLHolder.getConnection(); PreparedStatement s = c.prepareStatement(sql)) {
-            s.setString(1, value);
+    private Collection<Entry> queryEntries(Connection c, Collection<String> usernames) throws SQLException {
+        String[] batch = toBatch(usernames);
+        String sql = String.format(queryByUsernamesSQL, String.join(", ", Collections.nCopies(batch.length, "?")));
+        try (PreparedStatement s = c.prepareStatement(sql)) {
+            for (int i = 0; i < batch.length; i++) {
+                s.setString(i + 1, batch[i]);
+            }
 
             // Execute query
             s.setQueryTimeout(MySQLSourceConfig.TIMEOUT);
             try (ResultSet set = s.executeQuery()) {
-                return constructEntry(set);
+                Collection<Entry> entries = new ArrayList<>(usernames.size());
+                for (Entry entry = constructEntry(set); entry != null; entry = constructEntry(set)) {
+                    entries.add(entry);
+                }
+                return entries;
             }
+        }
+    }
+
+    private Entry query(String sql, String value) throws IOException {
+        try {
+            return mySQLHolder.read(c -> {
+                try (PreparedStatement s = c.prepareStatement(sql)) {
+                    s.setString(1, value);
+
+                    // Execute query
+                    s.setQueryTimeout(MySQLSourceConfig.TIMEOUT);
+                    try (ResultSet set = s.executeQuery()) {
+                        return constructEntry(set);
+                    }
+                }
+            });
         } catch (SQLException e) {
             throw new IOException(e);
         }
@@ -11,6 +11,9 @@ import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.UUID;
 
 public final class PostgreSQLAuthHandler extends CachedAuthHandler {
@@ -23,6 +26,7 @@ public final class PostgreSQLAuthHandler extends CachedAuthHandler {
 
     private final String queryByUUIDSQL;
     private final String queryByUsernameSQL;
+    private final String queryByUsernamesSQL;
     private final String updateAuthSQL;
     private final String updateServerIDSQL;
 
@@ -47,14 +51,17 @@ public final class PostgreSQLAuthHandler extends CachedAuthHandler {
                 uuidColumn, usernameColumn, accessTokenColumn, serverIDColumn, table, uuidColumn);
         queryByUsernameSQL = String.format("SELECT %s, %s, %s, %s FROM %s WHERE %s=?",
                 uuidColumn, usernameColumn, accessTokenColumn, serverIDColumn, table, usernameColumn);
+        queryByUsernamesSQL = String.format("SELECT %s, %s, %s, %s FROM %s WHERE %s IN (%%s)",
+                uuidColumn, usernameColumn, accessTokenColumn, serverIDColumn, table, usernameColumn);
         updateAuthSQL = String.format("UPDATE %s SET %s=?, %s=?, %s=NULL WHERE %s=?",
                 table, usernameColumn, accessTokenColumn, serverIDColumn, uuidColumn);
-        updateServerIDSQL = String.format("UPDATE %s SET %s=? WHERE %s=? LIMIT 1",
+        updateServerIDSQL = String.format("UPDATE %s SET %s=? WHERE %s=?",
                 table, serverIDColumn, uuidColumn);
     }
 
     @Override
     public void close() {
+        super.close(); // Flush pending writes first
         postgreSQLHolder.close();
     }
 
@@ -73,6 +80,23 @@ public final class PostgreSQLAuthHandler extends CachedAuthHandler {
         return query(queryByUUIDSQL, uuid);
     }
 
+    @Override
+    protected Collection<Entry> fetchEntries(Collection<String> usernames) throws IOException {
+        try {
+            // Names missing on replica may be not replicated yet, only they are asked from primary
+            return postgreSQLHolder.read(c -> queryEntries(c, usernames), entries -> {
+                Collection<String> missing = getMissing(usernames, entries);
+                return missing.isEmpty() ? null : c -> {
+                    Collection<Entry> rest = queryEntries(c, missing);
+                    rest.addAll(entries);
+                    return rest;
+                };
+            });
+        } catch (SQLException e) {
+            throw new IOException(e);
+        }
+    }
+
     @Override
     protected boolean updateAuth(UUID uuid, String username, String accessToken) throws IOException {
         try (Connection c = postgreSQLHolder.getConnection();
@@ -111,37 +135,99 @@ public final class PostgreSQLAuthHandler extends CachedAuthHandler {
         }
     }
 
-    private Entry query(String sql, String value) throws IOException {
+    @Override
+    protected void updateBatch(Collection<PendingUpdate> updates) throws IOException {
         try (Connection c = postgreSQLHolder.getConnection();
-             PreparedStatement s = c.prepareStatement(sql)) {
-            s.setString(1, value);
-
-            // Execute query
-            s.setQueryTimeout(PostgreSQLSourceConfig.TIMEOUT);
-            try (ResultSet set = s.executeQuery()) {
-                return constructEntry(set);
+             PreparedStatement auth = c.prepareStatement(updateAuthSQL);
+             PreparedStatement server = c.prepareStatement(updateServerIDSQL)) {
+            for (PendingUpdate update : updates) {
+                if (update.isAuthUpdated()) {
+                    auth.setString(1, update.username);
+                    auth.setString(2, update.accessToken);
+                    auth.setObject(3, toUUIDObject(update.uuid));
+                    auth.addBatch();
+                }
+                if (update.serverIDUpdated) {
+                    server.setString(1, update.serverID);
+                    server.setObject(2, toUUIDObject(update.uuid));
+                    server.addBatch();
+                }
             }
+
+            // Auth batch goes first, it resets server ID
+            auth.setQueryTimeout(PostgreSQLSourceConfig.TIMEOUT);
+            auth.executeBatch();
+            server.setQueryTimeout(PostgreSQLSourceConfig.TIMEOUT);
+            server.executeBatch();
         } catch (SQLException e) {
             throw new IOException(e);
         }
     }
 
-    private Entry query(String sql, UUID value) throws IOException {
-        try (Connection c = postgreSQLHolder.getConnection();
-             PreparedStatement s = c.prepareStatement(sql)) {
-            PGobject uuidObject = new PGobject();
-            uuidObject.setType("uuid");
-            uuidObject.setValue(value.toString());
-
-            s.setObject(1, uuidObject);
+    private Collection<Entry> queryEntries(Connection c, Collection<String> usernames) throws SQLException {
+        String[] batch = toBatch(usernames);
+        String sql = String.format(queryByUsernamesSQL, String.join(", ", Collections.nCopies(batch.length, "?")));
+        try (PreparedStatement s = c.prepareStatement(sql)) {
+            for (int i = 0; i < batch.length; i++) {
+                s.setString(i + 1, batch[i]);
+            }
 
             // Execute query
             s.setQueryTimeout(PostgreSQLSourceConfig.TIMEOUT);
             try (ResultSet set = s.executeQuery()) {
-                return constructEntry(set);
+                Collection<Entry> entries = new ArrayList<>(usernames.size());
+                for (Entry entry = constructEntry(set); entry != null; entry = constructEntry(set)) {
+                    entries.add(entry);
+                }
+                return entries;
             }
+        }
+    }
+
+    private Entry query(String sql, String value) throws IOException {
+        try {
+            return postgreSQLHolder.read(c -> {
+                try (PreparedStatement s = c.prepareStatement(sql)) {
+                    s.setString(1, value);
+
+                    // Execute query
+                    s.setQueryTimeout(PostgreSQLSourceConfig.TIMEOUT);
+                    try (ResultSet set = s.executeQuery()) {
+                        return constructEntry(set);
+                    }
+                }
+            });
         } catch (SQLException e) {
             throw new IOException(e);
         }
     }
+
+    private Entry query(String sql, UUID value) throws IOException {
+        try {
+            return postgreSQLHolder.read(c -> {
+                try (PreparedStatement s = c.prepareStatement(sql)) {
+                    PGobject uuidObject = new PGobject();
+                    uuidObject.setType("uuid");
+                    uuidObject.setValue(value.toString());
+
+                    s.setObject(1, uuidObject);
+
+                    // Execute query
+                    s.setQueryTimeout(PostgreSQLSourceConfig.TIMEOUT);
+                    try (ResultSet set = s.executeQuery()) {
+                        return constructEntry(set);
+                    }
+                }
+            });
+        } catch (SQLException e) {
+            throw new IOException(e);
+        }
+    }
+
+    private static PGobject toUUIDObject(UUID uuid) throws SQLException {
+        PGobject uuidObject = new PGobject();
+        uuidObject.setType("uuid");
+        uuidObject.setValue(uuid.toString());
+        return uuidObject;
+    }
 }
\ No newline at end of file
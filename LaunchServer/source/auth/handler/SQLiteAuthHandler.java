@@ -1,18 +1,22 @@
 package launchserver.auth.handler;
 
-import launcher.helper.LogHelper;
 import launcher.helper.VerifyHelper;
 import launcher.serialize.config.entry.BlockConfigEntry;
 import launcher.serialize.config.entry.StringConfigEntry;
-import launchserver.auth.MySQLSourceConfig;
+import launchserver.auth.SQLiteSourceConfig;
 
 import java.io.IOException;
-import java.sql.*;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.UUID;
 
 public final class SQLiteAuthHandler extends CachedAuthHandler {
-    private final Connection sqliteconnection;
-
+    private final SQLiteSourceConfig sqliteHolder;
     private final String uuidColumn;
     private final String usernameColumn;
     private final String accessTokenColumn;
@@ -21,229 +25,151 @@ public final class SQLiteAuthHandler extends CachedAuthHandler {
     // Prepared SQL queries
     private final String queryByUUIDSQL;
     private final String queryByUsernameSQL;
+    private final String queryByUsernamesSQL;
     private final String updateAuthSQL;
     private final String updateServerIDSQL;
 
     protected SQLiteAuthHandler(BlockConfigEntry block) {
         super(block);
-        String table = VerifyHelper.verifyIDName(block.getEntryValue("table", StringConfigEntry.class));
-
-        Connection v_sqliteconnection;
-        try {
-            v_sqliteconnection = DriverManager.getConnection("jdbc:sqlite:" + block.getEntryValue("path", StringConfigEntry.class));
-        } catch (Exception e) {
-            LogHelper.error("Error connecting to sqlite: ");
-            e.printStackTrace();
-            v_sqliteconnection = null;
-        }
+        sqliteHolder = new SQLiteSourceConfig("authHandlerPool", block);
+
+        // Read query params
+        String table = VerifyHelper.verifyIDName(
+                block.getEntryValue("table", StringConfigEntry.class));
+        uuidColumn = VerifyHelper.verifyIDName(
+                block.getEntryValue("uuidColumn", StringConfigEntry.class));
+        usernameColumn = VerifyHelper.verifyIDName(
+                block.getEntryValue("usernameColumn", StringConfigEntry.class));
+        accessTokenColumn = VerifyHelper.verifyIDName(
+                block.getEntryValue("accessTokenColumn", StringConfigEntry.class));
+        serverIDColumn = VerifyHelper.verifyIDName(
+                block.getEntryValue("serverIDColumn", StringConfigEntry.class));
+
+        // Prepare SQL queries (UPDATE ... LIMIT isn't available in every SQLite build, UUID is unique anyway)
+        queryByUUIDSQL = String.format("SELECT %s, %s, %s, %s FROM %s WHERE %s=? LIMIT 1",
+                uuidColumn, usernameColumn, accessTokenColumn, serverIDColumn, table, uuidColumn);
+        queryByUsernameSQL = String.format("SELECT %s, %s, %s, %s FROM %s WHERE %s=? LIMIT 1",
+                uuidColumn, usernameColumn, accessTokenColumn, serverIDColumn, table, usernameColumn);
+        queryByUsernamesSQL = String.format("SELECT %s, %s, %s, %s FROM %s WHERE %s IN (%%s)",
+                uuidColumn, usernameColumn, accessTokenColumn, serverIDColumn, table, usernameColumn);
+        updateAuthSQL = String.format("UPDATE %s SET %s=?, %s=?, %s=NULL WHERE %s=?",
+                table, usernameColumn, accessTokenColumn, serverIDColumn, uuidColumn);
+        updateServerIDSQL = String.format("UPDATE %s SET %s=? WHERE %s=?",
+                table, serverIDColumn, uuidColumn);
+    }
 
-        this.sqliteconnection = v_sqliteconnection;
-        this.uuidColumn = VerifyHelper.verifyIDName(block.getEntryValue("uuidColumn", StringConfigEntry.class));
-        this.usernameColumn = VerifyHelper.verifyIDName(block.getEntryValue("usernameColumn", StringConfigEntry.class));
-        this.accessTokenColumn = VerifyHelper.verifyIDName(block.getEntryValue("accessTokenColumn", StringConfigEntry.class));
-        this.serverIDColumn = VerifyHelper.verifyIDName(block.getEntryValue("serverIDColumn", StringConfigEntry.class));
-        this.queryByUUIDSQL = String.format("SELECT %s, %s, %s, %s FROM %s WHERE %s=? LIMIT 1", this.uuidColumn, this.usernameColumn, this.accessTokenColumn, this.serverIDColumn, table, this.uuidColumn);
-        this.queryByUsernameSQL = String.format("SELECT %s, %s, %s, %s FROM %s WHERE %s=? LIMIT 1", this.uuidColumn, this.usernameColumn, this.accessTokenColumn, this.serverIDColumn, table, this.usernameColumn);
-        this.updateAuthSQL = String.format("UPDATE %s SET %s=?, %s=?, %s=NULL WHERE %s=? LIMIT 1", table, this.usernameColumn, this.accessTokenColumn, this.serverIDColumn, this.uuidColumn);
-        this.updateServerIDSQL = String.format("UPDATE %s SET %s=? WHERE %s=? LIMIT 1", table, this.serverIDColumn, this.uuidColumn);
+    @Override
+    public void close() {
+        super.close(); // Flush pending writes first
+        sqliteHolder.close();
     }
 
     @Override
-    protected Entry fetchEntry(UUID uuid) throws IOException {
-        return this.query(this.queryByUUIDSQL, uuid.toString());
+    protected Entry fetchEntry(String username) throws IOException {
+        return query(queryByUsernameSQL, username);
     }
 
     @Override
-    protected Entry fetchEntry(String s) throws IOException {
-        return this.query(this.queryByUsernameSQL, s);
+    protected Entry fetchEntry(UUID uuid) throws IOException {
+        return query(queryByUUIDSQL, uuid.toString());
     }
 
-    protected boolean updateAuth(UUID uuid, String username, String accessToken) throws IOException {
-        try {
-            Connection c = this.sqliteconnection;
-            Throwable var5 = null;
+    @Override
+    protected Collection<Entry> fetchEntries(Collection<String> usernames) throws IOException {
+        String[] batch = toBatch(usernames);
+        String sql = String.format(queryByUsernamesSQL, String.join(", ", Collections.nCopies(batch.length, "?")));
+        try (SQLiteSourceConfig.Lease lease = sqliteHolder.lease()) {
+            PreparedStatement s = lease.prepare(sql);
+            for (int i = 0; i < batch.length; i++) {
+                s.setString(i + 1, batch[i]);
+            }
 
-            boolean var8;
-            try {
-                PreparedStatement s = c.prepareStatement(this.updateAuthSQL);
-                Throwable var7 = null;
-
-                try {
-                    s.setString(1, username);
-                    s.setString(2, accessToken);
-                    s.setString(3, uuid.toString());
-                    s.setQueryTimeout(5000);
-                    var8 = s.executeUpdate() > 0;
-                } catch (Throwable var33) {
-                    var7 = var33;
-                    throw var33;
-                } finally {
-                    if (s != null) {
-                        if (var7 != null) {
-                            try {
-                                s.close();
-                            } catch (Throwable var32) {
-                                var7.addSuppressed(var32);
-                            }
-                        } else {
-                            s.close();
-                        }
-                    }
-                }
-            } catch (Throwable var35) {
-                var5 = var35;
-                throw var35;
-            } finally {
-                if (c != null) {
-                    if (var5 != null) {
-                        try {
-                            c.close();
-                        } catch (Throwable var31) {
-                            var5.addSuppressed(var31);
-                        }
-                    } else {
-                        c.close();
-                    }
+            // Execute query
+            try (ResultSet set = s.executeQuery()) {
+                Collection<Entry> entries = new ArrayList<>(usernames.size());
+                for (Entry entry = constructEntry(set); entry != null; entry = constructEntry(set)) {
+                    entries.add(entry);
                 }
+                return entries;
             }
-            return var8;
         } catch (SQLException e) {
             throw new IOException(e);
         }
     }
 
+    @Override
+    protected boolean updateAuth(UUID uuid, String username, String accessToken) throws IOException {
+        try (SQLiteSourceConfig.Lease lease = sqliteHolder.lease()) {
+            PreparedStatement s = lease.prepare(updateAuthSQL);
+            s.setString(1, username); // Username case
+            s.setString(2, accessToken);
+            s.setString(3, uuid.toString());
+            return s.executeUpdate() > 0;
+        } catch (SQLException e) {
+            throw new IOException(e);
+        }
+    }
+
+    @Override
     protected boolean updateServerID(UUID uuid, String serverID) throws IOException {
-        try {
-            Connection c = this.sqliteconnection;
-            Throwable var4 = null;
+        try (SQLiteSourceConfig.Lease lease = sqliteHolder.lease()) {
+            PreparedStatement s = lease.prepare(updateServerIDSQL);
+            s.setString(1, serverID);
+            s.setString(2, uuid.toString());
+            return s.executeUpdate() > 0;
+        } catch (SQLException e) {
+            throw new IOException(e);
+        }
+    }
 
-            boolean var7;
+    @Override
+    protected void updateBatch(Collection<PendingUpdate> updates) throws IOException {
+        try (SQLiteSourceConfig.Lease lease = sqliteHolder.lease()) {
+            // One transaction, so the whole batch costs a single WAL commit
+            Connection c = lease.getConnection();
+            c.setAutoCommit(false);
             try {
-                PreparedStatement s = c.prepareStatement(this.updateServerIDSQL);
-                Throwable var6 = null;
-
-                try {
-                    s.setString(1, serverID);
-                    s.setString(2, uuid.toString());
-                    s.setQueryTimeout(MySQLSourceConfig.TIMEOUT);
-                    var7 = s.executeUpdate() > 0;
-                } catch (Throwable var32) {
-                    var6 = var32;
-                    throw var32;
-                } finally {
-                    if (s != null) {
-                        if (var6 != null) {
-                            try {
-                                s.close();
-                            } catch (Throwable var31) {
-                                var6.addSuppressed(var31);
-                            }
-                        } else {
-                            s.close();
-                        }
+                PreparedStatement auth = lease.prepare(updateAuthSQL);
+                PreparedStatement server = lease.prepare(updateServerIDSQL);
+                for (PendingUpdate update : updates) {
+                    if (update.isAuthUpdated()) {
+                        auth.setString(1, update.username);
+                        auth.setString(2, update.accessToken);
+                        auth.setString(3, update.uuid.toString());
+                        auth.executeUpdate();
                     }
-                }
-            } catch (Throwable var34) {
-                var4 = var34;
-                throw var34;
-            } finally {
-                if (c != null) {
-                    if (var4 != null) {
-                        try {
-                            c.close();
-                        } catch (Throwable var30) {
-                            var4.addSuppressed(var30);
-                        }
-                    } else {
-                        c.close();
+                    if (update.serverIDUpdated) {
+                        server.setString(1, update.serverID);
+                        server.setString(2, update.uuid.toString());
+                        server.executeUpdate();
                     }
                 }
+                c.commit();
+            } catch (SQLException | RuntimeException e) {
+                c.rollback();
+                throw e;
+            } finally {
+                c.setAutoCommit(true);
             }
-            return var7;
         } catch (SQLException e) {
             throw new IOException(e);
         }
     }
 
-    public void close() {
-        try {
-            this.sqliteconnection.close();
-        } catch (Exception e) {
-            e.printStackTrace();
-        }
-    }
-
     private Entry constructEntry(ResultSet set) throws SQLException {
-        return set.next() ? new Entry(UUID.fromString(set.getString(this.uuidColumn)), set.getString(this.usernameColumn), set.getString(this.accessTokenColumn), set.getString(this.serverIDColumn)) : null;
+        return set.next() ? new Entry(UUID.fromString(set.getString(uuidColumn)), set.getString(usernameColumn),
+                set.getString(accessTokenColumn), set.getString(serverIDColumn)) : null;
     }
 
     private Entry query(String sql, String value) throws IOException {
-        try {
-            Connection c = this.sqliteconnection;
-            Throwable var4 = null;
+        try (SQLiteSourceConfig.Lease lease = sqliteHolder.lease()) {
+            PreparedStatement s = lease.prepare(sql);
+            s.setString(1, value);
 
-            Entry var9;
-            try {
-                PreparedStatement s = c.prepareStatement(sql);
-                Throwable var6 = null;
-
-                try {
-                    s.setString(1, value);
-                    s.setQueryTimeout(MySQLSourceConfig.TIMEOUT);
-                    ResultSet set = s.executeQuery();
-                    Throwable var8 = null;
-
-                    try {
-                        var9 = this.constructEntry(set);
-                    } catch (Throwable var56) {
-                        var8 = var56;
-                        throw var56;
-                    } finally {
-                        if (set != null) {
-                            if (var8 != null) {
-                                try {
-                                    set.close();
-                                } catch (Throwable var55) {
-                                    var8.addSuppressed(var55);
-                                }
-                            } else {
-                                set.close();
-                            }
-                        }
-                    }
-                } catch (Throwable var58) {
-                    var6 = var58;
-                    throw var58;
-                } finally {
-                    if (s != null) {
-                        if (var6 != null) {
-                            try {
-                                s.close();
-                            } catch (Throwable var54) {
-                                var6.addSuppressed(var54);
-                            }
-                        } else {
-                            s.close();
-                        }
-                    }
-                }
-            } catch (Throwable var60) {
-                var4 = var60;
-                throw var60;
-            } finally {
-                if (c != null) {
-                    if (var4 != null) {
-                        try {
-                            c.close();
-                        } catch (Throwable var53) {
-                            var4.addSuppressed(var53);
-                        }
-                    } else {
-                        c.close();
-                    }
-                }
+            // Execute query
+            try (ResultSet set = s.executeQuery()) {
+                return constructEntry(set);
             }
-            return var9;
         } catch (SQLException e) {
             throw new IOException(e);
         }
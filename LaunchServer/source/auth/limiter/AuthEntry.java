@@ -2,6 +2,7 @@ package launchserver.auth.limiter;
 
 public class AuthEntry {
     public int value;
+    public int previous;
     public long ts;
 
     public AuthEntry(int i, long l) {
@@ -27,7 +28,7 @@ public class AuthEntry {
             return false;
         }
 
-        return value == other.value;
+        return value == other.value && previous == other.previous;
     }
 
     @Override
@@ -36,11 +37,12 @@ public class AuthEntry {
         int result = 1;
         result = prime * result + (int) (ts ^ ts >>> 32);
         result = prime * result + value;
+        result = prime * result + previous;
         return result;
     }
 
     @Override
     public String toString() {
-        return String.format("AuthEntry {value=%s, ts=%s}", value, ts);
+        return String.format("AuthEntry {value=%s, previous=%s, ts=%s}", value, previous, ts);
     }
 }
@@ -1,40 +1,122 @@
 package launchserver.auth.limiter;
 
 import launcher.LauncherAPI;
+import launcher.helper.CommonHelper;
+import launcher.helper.LogHelper;
 import launchserver.LaunchServer;
 
 import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
-public class AuthLimiter {
+public class AuthLimiter implements AutoCloseable {
     @LauncherAPI
     public static final long TIMEOUT = 10 * 60 * 1000; //10 минут
+    private static final int STRIPES = 64; // Power of two
+    private static final long MIN_EXPIRE_INTERVAL = 1000L;
     public final int rateLimit;
     public final int rateLimitMilis;
-    private final HashMap<String, AuthEntry> map;
+    private final Stripe[] stripes = new Stripe[STRIPES];
+    private final ScheduledThreadPoolExecutor expirer; // null if limit is disabled
 
     public AuthLimiter(LaunchServer srv) {
-        map = new HashMap<>();
-        rateLimit = srv.config.authLimitConfig.authRateLimit;
-        rateLimitMilis = srv.config.authLimitConfig.authRateLimitMilis;
+        this(srv.config.authLimitConfig.authRateLimit, srv.config.authLimitConfig.authRateLimitMilis);
+    }
+
+    @LauncherAPI
+    public AuthLimiter(int rateLimit, int rateLimitMilis) {
+        this.rateLimit = rateLimit;
+        this.rateLimitMilis = rateLimitMilis;
+        for (int i = 0; i < stripes.length; i++) {
+            stripes[i] = new Stripe();
+        }
+
+        // Idle entries are dropped in background, so rotating IPs can't grow map forever
+        if (rateLimit > 0) {
+            long interval = Math.max(rateLimitMilis, MIN_EXPIRE_INTERVAL);
+            expirer = new ScheduledThreadPoolExecutor(1, r -> CommonHelper.newThread("Auth Limiter Expiry Thread", true, r));
+            expirer.scheduleWithFixedDelay(this::expire, interval, interval, TimeUnit.MILLISECONDS);
+        } else {
+            expirer = null;
+        }
+    }
+
+    @Override
+    public void close() {
+        if (expirer != null) {
+            expirer.shutdownNow();
+        }
     }
 
     public boolean isLimit(String ip) {
-        if (map.containsKey(ip)) {
-            AuthEntry rate = map.get(ip);
-            long currenttime = System.currentTimeMillis();
-            if (rate.ts + rateLimitMilis < currenttime) {
-                rate.value = 0;
+        if (rateLimit <= 0) {
+            return false;
+        }
+
+        // Sliding window: previous window count is weighted by its overlap with [now - rateLimitMilis, now]
+        long now = System.currentTimeMillis();
+        Stripe stripe = stripes[spread(ip.hashCode()) & STRIPES - 1];
+        synchronized (stripe) {
+            AuthEntry entry = stripe.map.get(ip);
+            if (entry == null) {
+                stripe.map.put(ip, new AuthEntry(1, now));
+                return false;
             }
-            if (rate.value >= rateLimit && rateLimit > 0) {
-                rate.value++;
-                rate.ts = currenttime;
-                return true;
+            long elapsed = now - entry.ts;
+            if (elapsed >= rateLimitMilis) {
+                entry.previous = elapsed < 2L * rateLimitMilis ? entry.value : 0;
+                entry.value = 0;
+                entry.ts = now - elapsed % rateLimitMilis;
+                elapsed = now - entry.ts;
+            }
+            double previousWeight = 1.0D - (double) elapsed / rateLimitMilis;
+            boolean limit = entry.previous * previousWeight + entry.value >= rateLimit;
+            entry.value++; // Rejected attempts count too, so hammering keeps IP limited
+            return limit;
+        }
+    }
+
+    @LauncherAPI
+    public int size() {
+        int size = 0;
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                size += stripe.map.size();
+            }
+        }
+        return size;
+    }
+
+    @LauncherAPI
+    public void expireIdle() {
+        long now = System.currentTimeMillis();
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                Iterator<AuthEntry> iterator = stripe.map.values().iterator();
+                while (iterator.hasNext()) {
+                    if (now - iterator.next().ts >= 2L * rateLimitMilis) {
+                        iterator.remove(); // Both windows are over, entry has no effect
+                    }
+                }
             }
-            rate.value++;
-            rate.ts = currenttime;
-            return false;
         }
-        map.put(ip, new AuthEntry(1, System.currentTimeMillis()));
-        return false;
+    }
+
+    private void expire() {
+        try {
+            expireIdle();
+        } catch (Throwable exc) {
+            LogHelper.error(exc); // Keep scheduled task alive
+        }
+    }
+
+    private static int spread(int hash) {
+        return hash ^ hash >>> 16;
+    }
+
+    private static final class Stripe {
+        private final Map<String, AuthEntry> map = new HashMap<>(16);
     }
 }
@@ -1,30 +1,56 @@
 package launchserver.auth.limiter;
 
+import launcher.LauncherAPI;
+import launcher.helper.CommonHelper;
 import launcher.helper.LogHelper;
+import launcher.helper.SecurityHelper;
+import launcher.helper.VerifyHelper;
 import launcher.serialize.config.entry.BlockConfigEntry;
 import launchserver.auth.MySQL8SourceConfig;
 import launchserver.auth.MySQLSourceConfig;
 import launchserver.auth.SQLSourceConfig;
+import launchserver.helpers.BoundedCache;
 import launchserver.helpers.ImmutableByteArray;
 import launchserver.helpers.Pair;
 
-import java.sql.Connection;
-import java.sql.PreparedStatement;
-import java.sql.ResultSet;
-import java.sql.SQLException;
+import java.sql.*;
 import java.util.HashMap;
 import java.util.Map;
 
 public class AuthLimiterHWIDConfig {
+    @LauncherAPI
+    public static final int CACHE_TTL = VerifyHelper.verifyInt(
+            Integer.parseInt(System.getProperty("launcher.hwidCacheSeconds", Integer.toString(30))),
+            VerifyHelper.NOT_NEGATIVE, "launcher.hwidCacheSeconds can't be < 0");
+    private static final int CACHE_SIZE = 16384;
 
     private final SQLSourceConfig sourceConfig;
+    private final BoundedCache<String, Boolean> banCache;
+    private volatile boolean schemaChecked;
 
-    private static final String createTable1 = "create table userhardware(id1 int AUTO_INCREMENT, nickname varchar(255), hwidId int, primary key(id1))";
-    private static final String createTable2 = "create table hardware(id int AUTO_INCREMENT, hwid blob(64), banned bit, primary key(id))";
+    private static final String createTable1 = "create table userhardware(id1 int AUTO_INCREMENT, nickname varchar(255), hwidId int, primary key(id1), key(nickname))";
+    private static final String createTable2 = "create table hardware(id int AUTO_INCREMENT, hwid blob(64), hwid_hash binary(32), banned bit, primary key(id), unique key(hwid_hash))";
+
+    // hwid blob can't be indexed, so rows are looked up by its SHA-256
+    private static final String hasHashColumn = "select count(*) from information_schema.columns where table_schema=database() and table_name='hardware' and column_name='hwid_hash'";
+    private static final String addHashColumn = "alter table hardware add column hwid_hash binary(32)";
+    private static final String fillHashColumn = "update hardware set hwid_hash=unhex(sha2(hwid,256)) where hwid_hash is null";
+    private static final String hasHashIndex = "select count(*) from information_schema.statistics where table_schema=database() and table_name='hardware' and column_name='hwid_hash' and seq_in_index=1 and non_unique=0";
+    private static final String addHashIndex = "alter table hardware add unique key hwid_hash(hwid_hash)";
+    private static final String hasNicknameIndex = "select count(*) from information_schema.statistics where table_schema=database() and table_name='userhardware' and column_name='nickname' and seq_in_index=1";
+    private static final String addNicknameIndex = "alter table userhardware add key nickname(nickname)";
+
+    // Old find-then-insert could create duplicate hardware rows, merge them into the oldest one before adding unique key
+    private static final String duplicateHashes = "select hwid_hash,min(id) as keep_id,max(banned+0) as banned from hardware where hwid_hash is not null group by hwid_hash having count(*)>1";
+    private static final String mergeDuplicateBans = "update hardware h join (" + duplicateHashes + ") d on h.id=d.keep_id set h.banned=d.banned";
+    private static final String relinkDuplicates = "update userhardware u join hardware h on u.hwidId=h.id join (" + duplicateHashes + ") d on h.hwid_hash=d.hwid_hash and h.id<>d.keep_id set u.hwidId=d.keep_id";
+    private static final String deleteDuplicates = "delete h from hardware h join (" + duplicateHashes + ") d on h.hwid_hash=d.hwid_hash and h.id<>d.keep_id";
 
     private static final String getHardwareOfUser = "select hwid,banned from userhardware join hardware on hwidId=id and nickname=?";
-    private static final String findHardware = "select * from hardware where hwid=?";
-    private static final String addNewHardware = "insert into hardware(hwid,banned) values(?,?)";
+    private static final String checkHardware = "select banned,hwid_hash=? as current,1 as linked from userhardware join hardware on hwidId=id and nickname=? " +
+            "union all select banned,1,0 from hardware where hwid_hash=?";
+    private static final String upsertHardware = "insert into hardware(hwid,hwid_hash,banned) values(?,?,?) on duplicate key update id=last_insert_id(id)";
+    private static final String getBanStatus = "select banned from hardware where id=?";
     private static final String addHardwareToUser = "insert into userhardware(nickname,hwidId) values(?,?)";
     private static final String banUser = "update hardware set banned=1 where id in (select hwidId from userhardware where nickname=?)";
     private static final String pardonUser = "update hardware set banned=0 where id in (select hwidId from userhardware where nickname=?)";
@@ -32,6 +58,7 @@ public class AuthLimiterHWIDConfig {
 
     public AuthLimiterHWIDConfig(BlockConfigEntry hwidDB) {
         sourceConfig = new MySQL8SourceConfig("hwidPool", hwidDB);
+        banCache = new BoundedCache<>(CACHE_SIZE, CACHE_TTL * 1000L, 0);
         LogHelper.info("HWID Limiter enabled");
         /*try {
             //sourceConfig.getConnection().prepareStatement(createTable1).execute();
@@ -41,6 +68,45 @@ public class AuthLimiterHWIDConfig {
         }*/
     }
 
+    @LauncherAPI
+    public boolean checkHardware(String nickname, byte[] hwid) throws SQLException {
+        byte[] hash = SecurityHelper.digest(SecurityHelper.DigestAlgorithm.SHA256, hwid);
+        String key = CommonHelper.low(nickname) + ':' + SecurityHelper.toHex(hash);
+        if (CACHE_TTL > 0) {
+            Boolean banned = banCache.get(key);
+            if (banned != null) {
+                return banned;
+            }
+        }
+
+        // Known user hardware takes one round trip, new one is registered on the same connection
+        ensureSchema();
+        boolean banned = false;
+        boolean linked = false;
+        try (Connection c = sourceConfig.getConnection(); PreparedStatement s = c.prepareStatement(checkHardware)) {
+            s.setQueryTimeout(MySQLSourceConfig.TIMEOUT);
+
+            s.setBytes(1, hash);
+            s.setString(2, nickname);
+            s.setBytes(3, hash);
+            try (ResultSet set = s.executeQuery()) {
+                while (set.next()) {
+                    banned |= set.getBoolean(1);
+                    linked |= set.getBoolean(2) && set.getBoolean(3);
+                }
+            }
+            if (!linked) {
+                addHardwareToUser(c, nickname, registerHWID(c, hwid, hash, banned));
+            }
+        }
+
+        // Cache result
+        if (CACHE_TTL > 0) {
+            banCache.put(key, banned);
+        }
+        return banned;
+    }
+
     public Map<ImmutableByteArray, Boolean> getHardware(String nickname) throws SQLException {
         try (Connection c = sourceConfig.getConnection(); PreparedStatement s = c.prepareStatement(getHardwareOfUser)) {
             s.setQueryTimeout(MySQLSourceConfig.TIMEOUT);
@@ -63,6 +129,7 @@ public class AuthLimiterHWIDConfig {
             s.setString(1, nickname);
             s.execute();
         }
+        banCache.invalidateAll(); // Hardware may be shared with other users
     }
 
     public void pardonUser(String nickname) throws SQLException {
@@ -72,6 +139,7 @@ public class AuthLimiterHWIDConfig {
             s.setString(1, nickname);
             s.execute();
         }
+        banCache.invalidateAll(); // Hardware may be shared with other users
     }
 
     public boolean isBanned(String nickname) throws SQLException {
@@ -86,41 +154,114 @@ public class AuthLimiterHWIDConfig {
     }
 
     public Pair<Integer, Boolean> getOrRegisterHWID(byte[] hwid, boolean banned) throws SQLException {
-        try (Connection c = sourceConfig.getConnection();
-             PreparedStatement find = c.prepareStatement(findHardware);
-             PreparedStatement add = c.prepareStatement(addNewHardware)) {
-            find.setQueryTimeout(MySQLSourceConfig.TIMEOUT);
-            add.setQueryTimeout(MySQLSourceConfig.TIMEOUT);
-
-            find.setBytes(1, hwid);
-            try (ResultSet findResult = find.executeQuery()) {
-                if (findResult.next())
-                    return Pair.of(findResult.getInt("id"), findResult.getBoolean("banned"));
-                else {
-                    add.setBytes(1, hwid);
-                    add.setBoolean(2, banned);
-                    add.executeUpdate();
+        byte[] hash = SecurityHelper.digest(SecurityHelper.DigestAlgorithm.SHA256, hwid);
+        ensureSchema();
+        try (Connection c = sourceConfig.getConnection()) {
+            int id = registerHWID(c, hwid, hash, banned);
+            try (PreparedStatement find = c.prepareStatement(getBanStatus)) {
+                find.setQueryTimeout(MySQLSourceConfig.TIMEOUT);
+
+                find.setInt(1, id);
+                try (ResultSet findResult = find.executeQuery()) {
+                    findResult.next();
+                    return Pair.of(id, findResult.getBoolean("banned"));
                 }
             }
         }
+    }
+
+    public void addHardwareToUser(String nickname, int id) throws SQLException {
+        try (Connection c = sourceConfig.getConnection()) {
+            addHardwareToUser(c, nickname, id);
+        }
+    }
 
-        try (Connection c = sourceConfig.getConnection();
-             PreparedStatement find = c.prepareStatement(findHardware)) {
-            find.setQueryTimeout(MySQLSourceConfig.TIMEOUT);
+    private static int registerHWID(Connection c, byte[] hwid, byte[] hash, boolean banned) throws SQLException {
+        // Insert or return existing row id in a single statement
+        try (PreparedStatement upsert = c.prepareStatement(upsertHardware, Statement.RETURN_GENERATED_KEYS)) {
+            upsert.setQueryTimeout(MySQLSourceConfig.TIMEOUT);
 
-            find.setBytes(1, hwid);
-            try (ResultSet findResult = find.executeQuery()) {
-                findResult.next();
-                return Pair.of(findResult.getInt("id"), findResult.getBoolean("banned"));
+            upsert.setBytes(1, hwid);
+            upsert.setBytes(2, hash);
+            upsert.setBoolean(3, banned);
+            upsert.executeUpdate();
+            try (ResultSet keys = upsert.getGeneratedKeys()) {
+                if (!keys.next()) {
+                    throw new SQLException("No id returned for hardware upsert");
+                }
+                return keys.getInt(1);
             }
         }
     }
 
-    public void addHardwareToUser(String nickname, int id) throws SQLException {
-        try (Connection c = sourceConfig.getConnection(); PreparedStatement userhardware = c.prepareStatement(addHardwareToUser)) {
+    private static void addHardwareToUser(Connection c, String nickname, int id) throws SQLException {
+        try (PreparedStatement userhardware = c.prepareStatement(addHardwareToUser)) {
+            userhardware.setQueryTimeout(MySQLSourceConfig.TIMEOUT);
+
             userhardware.setString(1, nickname);
             userhardware.setInt(2, id);
             userhardware.execute();
         }
     }
+
+    private void ensureSchema() throws SQLException {
+        if (schemaChecked) {
+            return;
+        }
+        synchronized (this) {
+            if (schemaChecked) {
+                return;
+            }
+
+            // Migrate tables created before hwid_hash was added, each step is checked separately
+            // because DDL is auto-committed and previous attempt may have stopped halfway
+            try (Connection c = sourceConfig.getConnection(); Statement s = c.createStatement()) {
+                if (!exists(s, hasHashColumn)) {
+                    LogHelper.info("Adding hwid_hash column to hardware table");
+                    s.execute(addHashColumn);
+                }
+                if (!exists(s, hasNicknameIndex)) {
+                    LogHelper.info("Adding nickname index to userhardware table");
+                    s.execute(addNicknameIndex);
+                }
+                if (!exists(s, hasHashIndex)) {
+                    LogHelper.info("Adding hwid_hash unique key to hardware table");
+                    s.execute(fillHashColumn);
+                    mergeDuplicates(c, s);
+                    s.execute(addHashIndex);
+                }
+
+                // Upsert relies on unique key, so don't mark schema as checked without it
+                if (!exists(s, hasHashIndex)) {
+                    throw new SQLException("hwid_hash unique key is missing in hardware table");
+                }
+            }
+            schemaChecked = true;
+        }
+    }
+
+    private static boolean exists(Statement s, String query) throws SQLException {
+        try (ResultSet set = s.executeQuery(query)) {
+            return set.next() && set.getInt(1) > 0;
+        }
+    }
+
+    private static void mergeDuplicates(Connection c, Statement s) throws SQLException {
+        boolean autoCommit = c.getAutoCommit();
+        c.setAutoCommit(false);
+        try {
+            s.executeUpdate(mergeDuplicateBans); // Keep ban if any duplicate was banned
+            s.executeUpdate(relinkDuplicates);
+            int deleted = s.executeUpdate(deleteDuplicates);
+            c.commit();
+            if (deleted > 0) {
+                LogHelper.info("Merged %d duplicate hardware rows", deleted);
+            }
+        } catch (SQLException | RuntimeException e) {
+            c.rollback();
+            throw e;
+        } finally {
+            c.setAutoCommit(autoCommit);
+        }
+    }
 }
@@ -13,6 +13,7 @@ import java.io.FileWriter;
 import java.io.IOException;
 import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 public class AuthLimiterIPConfig {
@@ -21,9 +22,13 @@ public class AuthLimiterIPConfig {
     public static AuthLimiterIPConfig Instance;
 
     @Expose
-    List<String> allowIp = new ArrayList<>();
+    volatile List<String> allowIp = new ArrayList<>();
     @Expose
-    List<String> blockIp = new ArrayList<>();
+    volatile List<String> blockIp = new ArrayList<>();
+
+    // Lists are copied on write, tries are swapped after each change
+    private transient volatile IPTrie allowTrie;
+    private transient volatile IPTrie blockTrie;
 
     public static void load(Path file) throws Exception {
         ipConfigPath = file;
@@ -31,6 +36,7 @@ public class AuthLimiterIPConfig {
             LogHelper.subDebug("IP List file found! Loading...");
             try {
                 Instance = gson.fromJson(IOHelper.newReader(ipConfigPath), AuthLimiterIPConfig.class);
+                Instance.rebuild();
                 return;
             } catch (JsonIOException | IOException error) {
                 LogHelper.subWarning("Ip List not reading!");
@@ -43,10 +49,11 @@ public class AuthLimiterIPConfig {
 
         LogHelper.subWarning("IP List file not found! Creating file...");
         Instance = new AuthLimiterIPConfig();
+        Instance.rebuild();
         Instance.saveIPConfig();
     }
 
-    public void saveIPConfig() throws Exception {
+    public synchronized void saveIPConfig() throws Exception {
         File ipConfigFile = ipConfigPath.toFile();
         if (!ipConfigFile.exists()) ipConfigFile.createNewFile();
 
@@ -56,31 +63,58 @@ public class AuthLimiterIPConfig {
         //gson.toJson(this, IOHelper.newWriter(ipConfigPath));
     }
 
+    public boolean isAllowed(String ip) {
+        return allowTrie.contains(ip);
+    }
+
+    public boolean isBlocked(String ip) {
+        return blockTrie.contains(ip);
+    }
+
     public List<String> getAllowIp() {
-        return allowIp;
+        return Collections.unmodifiableList(allowIp);
     }
 
-    public AuthLimiterIPConfig addAllowIp(String allowIp) {
-        this.allowIp.add(allowIp);
+    public synchronized AuthLimiterIPConfig addAllowIp(String allowIp) {
+        List<String> newAllowIp = new ArrayList<>(this.allowIp);
+        newAllowIp.add(allowIp);
+        this.allowIp = newAllowIp;
+        allowTrie = IPTrie.build(newAllowIp);
         return this;
     }
 
-    public AuthLimiterIPConfig delAllowIp(String allowIp) {
-        this.allowIp.removeIf(e -> e.equals(allowIp));
+    public synchronized AuthLimiterIPConfig delAllowIp(String allowIp) {
+        List<String> newAllowIp = new ArrayList<>(this.allowIp);
+        newAllowIp.removeIf(e -> e.equals(allowIp));
+        this.allowIp = newAllowIp;
+        allowTrie = IPTrie.build(newAllowIp);
         return this;
     }
 
     public List<String> getBlockIp() {
-        return blockIp;
+        return Collections.unmodifiableList(blockIp);
     }
 
-    public AuthLimiterIPConfig addBlockIp(String blockIp) {
-        this.blockIp.add(blockIp);
+    public synchronized AuthLimiterIPConfig addBlockIp(String blockIp) {
+        List<String> newBlockIp = new ArrayList<>(this.blockIp);
+        newBlockIp.add(blockIp);
+        this.blockIp = newBlockIp;
+        blockTrie = IPTrie.build(newBlockIp);
         return this;
     }
 
-    public AuthLimiterIPConfig delBlockIp(String blockIp) {
-        this.blockIp.removeIf(e -> e.equals(blockIp));
+    public synchronized AuthLimiterIPConfig delBlockIp(String blockIp) {
+        List<String> newBlockIp = new ArrayList<>(this.blockIp);
+        newBlockIp.removeIf(e -> e.equals(blockIp));
+        this.blockIp = newBlockIp;
+        blockTrie = IPTrie.build(newBlockIp);
         return this;
     }
+
+    private synchronized void rebuild() {
+        if (allowIp == null) allowIp = new ArrayList<>();
+        if (blockIp == null) blockIp = new ArrayList<>();
+        allowTrie = IPTrie.build(allowIp);
+        blockTrie = IPTrie.build(blockIp);
+    }
 }
\ No newline at end of file
@@ -0,0 +1,219 @@
+package launchserver.auth.limiter;
+
+import launcher.LauncherAPI;
+import launcher.helper.LogHelper;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+// Immutable binary prefix trie, lookup walks at most 32 (IPv4) or 128 (IPv6) bits
+public final class IPTrie {
+    private final Node root4;
+    private final Node root6;
+
+    private IPTrie(Node root4, Node root6) {
+        this.root4 = root4;
+        this.root6 = root6;
+    }
+
+    @LauncherAPI
+    public static IPTrie build(Collection<String> ranges) {
+        Node root4 = new Node();
+        Node root6 = new Node();
+        for (String range : ranges) {
+            try {
+                insert(range, root4, root6);
+            } catch (IllegalArgumentException e) {
+                LogHelper.subWarning("Skipping invalid IP range '%s': %s", range, e.getMessage());
+            }
+        }
+        return new IPTrie(root4, root6);
+    }
+
+    @LauncherAPI
+    public static boolean isValidRange(String range) {
+        try {
+            parsePrefix(range, parseAddress(stripPrefix(range)));
+            return true;
+        } catch (IllegalArgumentException ignored) {
+            return false;
+        }
+    }
+
+    @LauncherAPI
+    public boolean contains(String ip) {
+        byte[] address;
+        try {
+            address = parseAddress(ip);
+        } catch (IllegalArgumentException ignored) {
+            return false;
+        }
+
+        // Walk until any covering prefix ends
+        Node node = address.length == 4 ? root4 : root6;
+        for (int bit = 0; node != null; bit++) {
+            if (node.terminal) {
+                return true;
+            }
+            if (bit == address.length * 8) {
+                return false;
+            }
+            node = node.children[bitAt(address, bit)];
+        }
+        return false;
+    }
+
+    private static void insert(String range, Node root4, Node root6) {
+        byte[] address = parseAddress(stripPrefix(range));
+        int prefix = parsePrefix(range, address);
+        Node node = address.length == 4 ? root4 : root6;
+        for (int bit = 0; bit < prefix; bit++) {
+            int child = bitAt(address, bit);
+            if (node.children[child] == null) {
+                node.children[child] = new Node();
+            }
+            node = node.children[child];
+        }
+        node.terminal = true;
+    }
+
+    private static byte[] parseAddress(String ip) {
+        int scope = ip.indexOf('%'); // IPv6 scope ID
+        if (scope >= 0) {
+            ip = ip.substring(0, scope);
+        }
+
+        // Literals only, never resolve hostnames
+        byte[] address = ip.indexOf(':') < 0 ? parseIPv4(ip) : parseIPv6(ip);
+        if (address == null) {
+            throw new IllegalArgumentException("Not an IP address");
+        }
+        return address;
+    }
+
+    private static byte[] parseIPv4(String ip) {
+        String[] parts = ip.split("\\.", -1);
+        if (parts.length != 4) {
+            return null;
+        }
+
+        // Dotted-quad, decimal only
+        byte[] address = new byte[4];
+        for (int i = 0; i < parts.length; i++) {
+            String part = parts[i];
+            if (part.isEmpty() || part.length() > 3) {
+                return null;
+            }
+            int value = 0;
+            for (int j = 0; j < part.length(); j++) {
+                char ch = part.charAt(j);
+                if (ch < '0' || ch > '9') {
+                    return null;
+                }
+                value = value * 10 + ch - '0';
+            }
+            if (value > 255) {
+                return null;
+            }
+            address[i] = (byte) value;
+        }
+        return address;
+    }
+
+    private static byte[] parseIPv6(String ip) {
+        int compressed = ip.indexOf("::");
+        if (compressed >= 0 && ip.indexOf("::", compressed + 1) >= 0) {
+            return null; // Only one '::' is allowed
+        }
+
+        // Parse groups before and after '::', embedded IPv4 is allowed only at the end
+        byte[] head = new byte[16];
+        byte[] tail = new byte[16];
+        int headLength = compressed < 0 ? parseGroups(ip, head, true) : parseGroups(ip.substring(0, compressed), head, false);
+        int tailLength = compressed < 0 ? 0 : parseGroups(ip.substring(compressed + 2), tail, true);
+        if (headLength < 0 || tailLength < 0 || (compressed < 0 ? headLength != 16 : headLength + tailLength > 14)) {
+            return null;
+        }
+        byte[] address = new byte[16];
+        System.arraycopy(head, 0, address, 0, headLength);
+        System.arraycopy(tail, 0, address, 16 - tailLength, tailLength);
+
+        // IPv4-mapped addresses are matched as IPv4
+        for (int i = 0; i < 10; i++) {
+            if (address[i] != 0) {
+                return address;
+            }
+        }
+        return address[10] == (byte) 0xFF && address[11] == (byte) 0xFF ? Arrays.copyOfRange(address, 12, 16) : address;
+    }
+
+    // Returns number of bytes written, or -1 if groups are invalid
+    private static int parseGroups(String groups, byte[] output, boolean allowIPv4) {
+        if (groups.isEmpty()) {
+            return 0;
+        }
+        String[] parts = groups.split(":", -1);
+        int length = 0;
+        for (int i = 0; i < parts.length; i++) {
+            String part = parts[i];
+            if (allowIPv4 && i == parts.length - 1 && part.indexOf('.') >= 0) {
+                byte[] ipv4 = parseIPv4(part);
+                if (ipv4 == null || length + 4 > output.length) {
+                    return -1;
+                }
+                System.arraycopy(ipv4, 0, output, length, 4);
+                return length + 4;
+            }
+            if (part.isEmpty() || part.length() > 4 || length + 2 > output.length) {
+                return -1;
+            }
+
+            // Hex group, up to 4 digits
+            int value = 0;
+            for (int j = 0; j < part.length(); j++) {
+                int digit = Character.digit(part.charAt(j), 16);
+                if (digit < 0 || part.charAt(j) > 'f') {
+                    return -1;
+                }
+                value = value << 4 | digit;
+            }
+            output[length++] = (byte) (value >>> 8);
+            output[length++] = (byte) value;
+        }
+        return length;
+    }
+
+    private static int parsePrefix(String range, byte[] address) {
+        int slash = range.indexOf('/');
+        int maxPrefix = address.length * 8;
+        if (slash < 0) {
+            return maxPrefix;
+        }
+
+        // Parse and verify prefix length
+        int prefix;
+        try {
+            prefix = Integer.parseInt(range.substring(slash + 1));
+        } catch (NumberFormatException ignored) {
+            throw new IllegalArgumentException("Invalid prefix length");
+        }
+        if (prefix < 0 || prefix > maxPrefix) {
+            throw new IllegalArgumentException("Prefix length out of range");
+        }
+        return prefix;
+    }
+
+    private static String stripPrefix(String range) {
+        int slash = range.indexOf('/');
+        return slash < 0 ? range : range.substring(0, slash);
+    }
+
+    private static int bitAt(byte[] address, int bit) {
+        return address[bit >>> 3] >>> 7 - (bit & 7) & 1;
+    }
+
+    private static final class Node {
+        private final Node[] children = new Node[2];
+        private boolean terminal;
+    }
+}
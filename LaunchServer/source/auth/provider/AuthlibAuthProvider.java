@@ -5,6 +5,7 @@ import com.eclipsesource.json.JsonObject;
 import com.eclipsesource.json.JsonValue;
 import launcher.serialize.config.entry.BlockConfigEntry;
 import launcher.serialize.config.entry.StringConfigEntry;
+import launchserver.helpers.HTTPClient;
 import launchserver.helpers.HTTPRequestHelper;
 
 import java.net.MalformedURLException;
@@ -21,8 +22,11 @@ public class AuthlibAuthProvider extends AuthProvider {
     //  https://wiki.vg/Authentication#Refresh
     //  https://wiki.vg/Authentication#Signout
 
+    private final HTTPClient client;
+
     AuthlibAuthProvider(BlockConfigEntry block) {
         super(block);
+        client = HTTPClient.fromConfig("Authlib auth", block);
         authUrl = block.getEntryValue("authUrl", StringConfigEntry.class);
 
         try {
@@ -43,7 +47,7 @@ public class AuthlibAuthProvider extends AuthProvider {
                 add("username", login).add("password", password).add("clientToken", clientToken);
 
         // Verify there's no error
-        JsonObject response = HTTPRequestHelper.makeAuthlibRequest(URL, request, "Authlib");
+        JsonObject response = HTTPRequestHelper.makeAuthlibRequest(client, URL, request, "Authlib");
         if (response == null) {
             authError("Empty Authlib response");
         }
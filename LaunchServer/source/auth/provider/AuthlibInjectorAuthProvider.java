@@ -5,6 +5,7 @@ import com.eclipsesource.json.JsonObject;
 import com.eclipsesource.json.JsonValue;
 import launcher.serialize.config.entry.BlockConfigEntry;
 import launcher.serialize.config.entry.StringConfigEntry;
+import launchserver.helpers.HTTPClient;
 import launchserver.helpers.HTTPRequestHelper;
 
 import java.net.MalformedURLException;
@@ -17,8 +18,11 @@ public class AuthlibInjectorAuthProvider extends AuthProvider {
     private static URL URL;
     private static String urlApiInjector;
 
+    private final HTTPClient client;
+
     AuthlibInjectorAuthProvider(BlockConfigEntry block) {
         super(block);
+        client = HTTPClient.fromConfig("Authlib-Injector auth", block);
         urlApiInjector = block.getEntryValue("urlApiInjector", StringConfigEntry.class);
         try {
             URL = new URL(urlApiInjector + "/authserver/authenticate");
@@ -37,7 +41,7 @@ public class AuthlibInjectorAuthProvider extends AuthProvider {
                 add("username", login).add("password", password).add("clientToken", clientToken);
 
         // Verify there's no error
-        JsonObject response = HTTPRequestHelper.makeAuthlibRequest(URL, request, "Authlib-Injector");
+        JsonObject response = HTTPRequestHelper.makeAuthlibRequest(client, URL, request, "Authlib-Injector");
         if (response == null) {
             authError("Empty Authlib-Injector response");
         }
@@ -0,0 +1,86 @@
+package launchserver.auth.provider;
+
+import launcher.LauncherAPI;
+import launcher.helper.CommonHelper;
+import launcher.helper.JVMHelper;
+import launcher.helper.VerifyHelper;
+import launchserver.auth.AuthException;
+import launchserver.helpers.LatencyHistogram;
+import org.mindrot.jbcrypt.BCrypt;
+
+import java.io.IOException;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.LongAdder;
+
+// BCrypt takes ~100 ms of CPU per check, so logins are limited to one check per core
+public final class BcryptVerifier {
+    @LauncherAPI
+    public static final int THREADS = VerifyHelper.verifyInt(
+            Integer.parseInt(System.getProperty("launcher.bcryptThreads",
+                    Integer.toString(JVMHelper.RUNTIME.availableProcessors()))),
+            VerifyHelper.POSITIVE, "launcher.bcryptThreads can't be <= 0");
+    @LauncherAPI
+    public static final int QUEUE_SIZE = VerifyHelper.verifyInt(
+            Integer.parseInt(System.getProperty("launcher.bcryptQueueSize", Integer.toString(256))),
+            VerifyHelper.POSITIVE, "launcher.bcryptQueueSize can't be <= 0");
+
+    // Metrics
+    @LauncherAPI
+    public static final LatencyHistogram QUEUE_WAIT = new LatencyHistogram();
+    @LauncherAPI
+    public static final LatencyHistogram VERIFY_TIME = new LatencyHistogram();
+    private static final LongAdder REJECTED = new LongAdder();
+
+    // Executor
+    private static final ThreadPoolExecutor EXECUTOR = new ThreadPoolExecutor(THREADS, THREADS,
+            60L, TimeUnit.SECONDS, new ArrayBlockingQueue<>(QUEUE_SIZE),
+            r -> CommonHelper.newThread("BCrypt Thread", true, r), new ThreadPoolExecutor.AbortPolicy());
+
+    static {
+        EXECUTOR.allowCoreThreadTimeOut(true);
+    }
+
+    private BcryptVerifier() {
+    }
+
+    @LauncherAPI
+    public static boolean checkpw(String password, String hash) throws IOException {
+        long submitted = System.nanoTime();
+        Future<Boolean> future;
+        try {
+            future = EXECUTOR.submit(() -> {
+                long started = System.nanoTime();
+                QUEUE_WAIT.record(started - submitted);
+                try {
+                    return BCrypt.checkpw(password, hash);
+                } finally {
+                    VERIFY_TIME.record(System.nanoTime() - started);
+                }
+            });
+        } catch (RejectedExecutionException ignored) {
+            REJECTED.increment();
+            throw new AuthException("Auth server is overloaded, try again later");
+        }
+
+        // Wait for verification result
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IOException(e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause; // Malformed hash etc.
+            }
+            throw new IOException(cause);
+        }
+    }
+
+    @LauncherAPI
+    public static String getStats() {
+        return String.format("threads=%d, queued=%d/%d, rejected=%d; queue wait: %s; verify: %s",
+                EXECUTOR.getActiveCount(), EXECUTOR.getQueue().size(), QUEUE_SIZE, REJECTED.sum(), QUEUE_WAIT, VERIFY_TIME);
+    }
+}
@@ -4,6 +4,7 @@ import com.eclipsesource.json.Json;
 import com.eclipsesource.json.JsonObject;
 import com.eclipsesource.json.JsonValue;
 import launcher.serialize.config.entry.BlockConfigEntry;
+import launchserver.helpers.HTTPClient;
 import launchserver.helpers.HTTPRequestHelper;
 
 import java.net.MalformedURLException;
@@ -23,8 +24,11 @@ public class ElyByAuthProvider extends AuthProvider {
         }
     }
 
+    private final HTTPClient client;
+
     ElyByAuthProvider(BlockConfigEntry block) {
         super(block);
+        client = HTTPClient.fromConfig("ElyBy auth", block);
     }
 
     @Override
@@ -36,7 +40,7 @@ public class ElyByAuthProvider extends AuthProvider {
                 add("username", login).add("password", password).add("clientToken", clientToken);
 
         // Verify there's no error
-        JsonObject response = HTTPRequestHelper.makeAuthlibRequest(URL, request, "ElyBy");
+        JsonObject response = HTTPRequestHelper.makeAuthlibRequest(client, URL, request, "ElyBy");
         if (response == null) {
             authError("Empty ElyBy response");
         }
@@ -8,19 +8,19 @@ import launcher.helper.SecurityHelper;
 import launcher.helper.VerifyHelper;
 import launcher.serialize.config.entry.BlockConfigEntry;
 import launcher.serialize.config.entry.StringConfigEntry;
+import launchserver.helpers.HTTPClient;
 
 import java.io.IOException;
-import java.io.InputStreamReader;
-import java.io.OutputStreamWriter;
-import java.net.HttpURLConnection;
 import java.net.URL;
 import java.nio.charset.StandardCharsets;
+import java.util.Collections;
 
 public final class JsonAuthProvider extends AuthProvider {
     private static final int TIMEOUT = Integer.parseInt(
             System.getProperty("launcher.connection.timeout", Integer.toString(1500)));
 
     private final URL url;
+    private final HTTPClient client;
     private final String userKeyName;
     private final String passKeyName;
     private final String ipKeyName;
@@ -36,38 +36,17 @@ public final class JsonAuthProvider extends AuthProvider {
         responseUserKeyName = VerifyHelper.verify_1(block.getEntryValue("responseUserKeyName", StringConfigEntry.class), VerifyHelper.NOT_EMPTY, "Response username key can't be empty");
         responseErrorKeyName = VerifyHelper.verify_1(block.getEntryValue("responseErrorKeyName", StringConfigEntry.class), VerifyHelper.NOT_EMPTY, "Response error key can't be empty");
         url = IOHelper.convertToURL(configUrl);
+        client = HTTPClient.fromConfig("Json auth", block, TIMEOUT > 0 ? TIMEOUT : IOHelper.HTTP_TIMEOUT);
     }
 
     @Override
     public AuthProviderResult auth(String login, String password, String ip) throws IOException {
         JsonObject request = Json.object().add(userKeyName, login).add(passKeyName, password).add(ipKeyName, ip);
-        HttpURLConnection connection = (HttpURLConnection) url.openConnection();
-        connection.setDoInput(true);
-        connection.setDoOutput(true);
-        connection.setRequestMethod("POST");
-        connection.setRequestProperty("Content-Type", "application/json; charset=UTF-8");
-        connection.setRequestProperty("Accept", "application/json");
-        if (TIMEOUT > 0) {
-            connection.setConnectTimeout(TIMEOUT);
-        }
-
-        OutputStreamWriter writer = new OutputStreamWriter(connection.getOutputStream(), StandardCharsets.UTF_8);
-        writer.write(request.toString());
-        writer.flush();
-        writer.close();
-
-        InputStreamReader reader;
-        int statusCode = connection.getResponseCode();
-
         // Don't throw an exception when gets 4xx/5xx response
         // https://github.com/new-sashok724/Launcher/pull/54/commits/d3be2e243cf5476af000fd8850da9436a227eb2a
-        if (200 <= statusCode && statusCode < 300) {
-            reader = new InputStreamReader(connection.getInputStream(), StandardCharsets.UTF_8);
-        } else {
-            reader = new InputStreamReader(connection.getErrorStream(), StandardCharsets.UTF_8);
-        }
-
-        JsonValue content = Json.parse(reader);
+        HTTPClient.Response httpResponse = client.send(url, "POST", "application/json; charset=UTF-8",
+                request.toString().getBytes(StandardCharsets.UTF_8), Collections.singletonMap("Accept", "application/json"));
+        JsonValue content = Json.parse(new String(httpResponse.body, StandardCharsets.UTF_8));
         if (!content.isObject()) {
             return authError("Authentication server response is malformed");
         }
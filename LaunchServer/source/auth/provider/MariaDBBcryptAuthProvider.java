@@ -6,10 +6,9 @@ import launcher.helper.VerifyHelper;
 import launcher.serialize.config.entry.BlockConfigEntry;
 import launcher.serialize.config.entry.ListConfigEntry;
 import launcher.serialize.config.entry.StringConfigEntry;
-import launchserver.auth.AuthException;
 import launchserver.auth.MariaDBSourceConfig;
-import org.mindrot.jbcrypt.BCrypt;
 
+import java.io.IOException;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
@@ -31,7 +30,9 @@ public final class MariaDBBcryptAuthProvider extends AuthProvider {
     }
 
     @Override
-    public AuthProviderResult auth(String login, String password, String ip) throws SQLException, AuthException {
+    public AuthProviderResult auth(String login, String password, String ip) throws SQLException, IOException {
+        String hash;
+        String username;
         try (Connection c = mySQLHolder.getConnection(); PreparedStatement s = c.prepareStatement(query)) {
             String[] replaceParams = {"login", login, "password", password, "ip", ip};
             for (int i = 0; i < queryParams.length; i++) {
@@ -41,9 +42,17 @@ public final class MariaDBBcryptAuthProvider extends AuthProvider {
             // Execute SQL query
             s.setQueryTimeout(MariaDBSourceConfig.TIMEOUT);
             try (ResultSet set = s.executeQuery()) {
-                return set.next() ? BCrypt.checkpw(password, "$2a" + set.getString(1).substring(3)) ? new AuthProviderResult(set.getString(2), SecurityHelper.randomStringToken()) : authError("Incorrect username or password") : authError("Incorrect username or password");
+                if (!set.next()) {
+                    return authError("Incorrect username or password");
+                }
+                hash = set.getString(1);
+                username = set.getString(2);
             }
         }
+
+        // Verify password after connection is returned to pool
+        return BcryptVerifier.checkpw(password, "$2a" + hash.substring(3)) ?
+                new AuthProviderResult(username, SecurityHelper.randomStringToken()) : authError("Incorrect username or password");
     }
 
     @Override
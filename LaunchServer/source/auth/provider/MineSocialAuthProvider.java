@@ -4,6 +4,7 @@ import com.eclipsesource.json.Json;
 import com.eclipsesource.json.JsonObject;
 import com.eclipsesource.json.JsonValue;
 import launcher.serialize.config.entry.BlockConfigEntry;
+import launchserver.helpers.HTTPClient;
 import launchserver.helpers.HTTPRequestHelper;
 
 import java.net.MalformedURLException;
@@ -25,8 +26,11 @@ public class MineSocialAuthProvider extends AuthProvider {
         }
     }
 
+    private final HTTPClient client;
+
     MineSocialAuthProvider(BlockConfigEntry block) {
         super(block);
+        client = HTTPClient.fromConfig("MineSocial auth", block);
     }
 
     @Override
@@ -39,7 +43,7 @@ public class MineSocialAuthProvider extends AuthProvider {
                 add("crypto", "SHA-1");
 
         // Verify there's no error
-        JsonObject response = HTTPRequestHelper.makeAuthlibRequest(URL, request, "MineSocial");
+        JsonObject response = HTTPRequestHelper.makeAuthlibRequest(client, URL, request, "MineSocial");
         if (response == null) {
             authError("Empty MineSocial Provider response");
         }
@@ -4,6 +4,7 @@ import com.eclipsesource.json.Json;
 import com.eclipsesource.json.JsonObject;
 import com.eclipsesource.json.JsonValue;
 import launcher.serialize.config.entry.BlockConfigEntry;
+import launchserver.helpers.HTTPClient;
 import launchserver.helpers.HTTPRequestHelper;
 
 import java.net.MalformedURLException;
@@ -23,8 +24,11 @@ public final class MojangAuthProvider extends AuthProvider {
         }
     }
 
+    private final HTTPClient client;
+
     MojangAuthProvider(BlockConfigEntry block) {
         super(block);
+        client = HTTPClient.fromConfig("Mojang auth", block);
     }
 
     @Override
@@ -35,7 +39,7 @@ public final class MojangAuthProvider extends AuthProvider {
                 add("username", login).add("password", password);
 
         // Verify there's no error
-        JsonObject response = HTTPRequestHelper.makeAuthlibRequest(URL, request, "Mojang");
+        JsonObject response = HTTPRequestHelper.makeAuthlibRequest(client, URL, request, "Mojang");
         if (response == null) {
             authError("Empty mojang response");
         }
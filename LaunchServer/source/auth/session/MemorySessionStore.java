@@ -0,0 +1,50 @@
+package launchserver.auth.session;
+
+import launcher.LauncherAPI;
+import launcher.helper.CommonHelper;
+import launchserver.helpers.BoundedCache;
+
+import java.util.UUID;
+
+public final class MemorySessionStore extends SessionStore {
+    private final BoundedCache<String, Session> sessions;
+
+    @LauncherAPI
+    public MemorySessionStore(int maximumSize, long ttl) {
+        sessions = new BoundedCache<>(maximumSize, ttl, 0);
+    }
+
+    @Override
+    public void join(UUID uuid, String username, String serverID) {
+        sessions.put(CommonHelper.low(username), new Session(uuid, username, serverID));
+    }
+
+    @Override
+    public UUID check(String username, String serverID) {
+        Session session = sessions.get(CommonHelper.low(username));
+        return session != null && username.equals(session.username) &&
+                serverID.equals(session.serverID) ? session.uuid : null;
+    }
+
+    @Override
+    public void invalidate(String username) {
+        sessions.invalidate(CommonHelper.low(username));
+    }
+
+    @Override
+    public String toString() {
+        return sessions.toString();
+    }
+
+    private static final class Session {
+        private final UUID uuid;
+        private final String username;
+        private final String serverID;
+
+        private Session(UUID uuid, String username, String serverID) {
+            this.uuid = uuid;
+            this.username = username;
+            this.serverID = serverID;
+        }
+    }
+}
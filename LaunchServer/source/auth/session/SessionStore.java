@@ -0,0 +1,17 @@
+package launchserver.auth.session;
+
+import launcher.LauncherAPI;
+
+import java.util.UUID;
+
+// Short-lived joinServer -> checkServer handshake state, doesn't need to outlive the server
+public abstract class SessionStore {
+    @LauncherAPI
+    public abstract void join(UUID uuid, String username, String serverID);
+
+    @LauncherAPI
+    public abstract UUID check(String username, String serverID);
+
+    @LauncherAPI
+    public abstract void invalidate(String username);
+}
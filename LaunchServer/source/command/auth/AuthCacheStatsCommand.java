@@ -0,0 +1,35 @@
+package launchserver.command.auth;
+
+import launcher.helper.LogHelper;
+import launchserver.LaunchServer;
+import launchserver.auth.handler.AuthHandler;
+import launchserver.auth.handler.CachedAuthHandler;
+import launchserver.command.Command;
+import launchserver.command.CommandException;
+
+public final class AuthCacheStatsCommand extends Command {
+    public AuthCacheStatsCommand(LaunchServer server) {
+        super(server);
+    }
+
+    @Override
+    public String getArgsDescription() {
+        return null;
+    }
+
+    @Override
+    public String getUsageDescription() {
+        return "Print auth handler cache stats";
+    }
+
+    @Override
+    public void invoke(String... args) throws CommandException {
+        AuthHandler handler = server.config.authHandler;
+        if (!(handler instanceof CachedAuthHandler)) {
+            throw new CommandException("Auth handler isn't cached");
+        }
+
+        // Print stats
+        LogHelper.subInfo("Auth cache stats: %s", ((CachedAuthHandler) handler).getCacheStats());
+    }
+}
@@ -0,0 +1,27 @@
+package launchserver.command.auth;
+
+import launcher.helper.LogHelper;
+import launchserver.LaunchServer;
+import launchserver.auth.provider.BcryptVerifier;
+import launchserver.command.Command;
+
+public final class BcryptStatsCommand extends Command {
+    public BcryptStatsCommand(LaunchServer server) {
+        super(server);
+    }
+
+    @Override
+    public String getArgsDescription() {
+        return null;
+    }
+
+    @Override
+    public String getUsageDescription() {
+        return "Print bcrypt verification executor stats";
+    }
+
+    @Override
+    public void invoke(String... args) {
+        LogHelper.subInfo("BCrypt stats: %s", BcryptVerifier.getStats());
+    }
+}
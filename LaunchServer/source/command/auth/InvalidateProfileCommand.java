@@ -0,0 +1,46 @@
+package launchserver.command.auth;
+
+import launcher.helper.LogHelper;
+import launchserver.LaunchServer;
+import launchserver.command.Command;
+import launchserver.command.CommandException;
+import launchserver.response.profile.ProfileCache;
+
+import java.io.IOException;
+import java.util.UUID;
+
+public final class InvalidateProfileCommand extends Command {
+    public InvalidateProfileCommand(LaunchServer server) {
+        super(server);
+    }
+
+    @Override
+    public String getArgsDescription() {
+        return "[username]";
+    }
+
+    @Override
+    public String getUsageDescription() {
+        return "Invalidate cached player profile(s)";
+    }
+
+    @Override
+    public void invoke(String... args) throws CommandException, IOException {
+        if (args.length == 0) {
+            ProfileCache.invalidateAll();
+            LogHelper.subInfo("All profiles invalidated");
+            return;
+        }
+        String username = parseUsername(args[0]);
+
+        // Get UUID by username
+        UUID uuid = server.config.authHandler.usernameToUUID(username);
+        if (uuid == null) {
+            throw new CommandException(String.format("Unknown username: '%s'", username));
+        }
+
+        // Invalidate profile
+        ProfileCache.invalidate(uuid);
+        LogHelper.subInfo("Profile of player '%s' invalidated", username);
+    }
+}
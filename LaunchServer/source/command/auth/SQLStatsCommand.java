@@ -0,0 +1,35 @@
+package launchserver.command.auth;
+
+import launcher.helper.LogHelper;
+import launchserver.LaunchServer;
+import launchserver.auth.SQLStats;
+import launchserver.command.Command;
+import launchserver.helpers.LatencyHistogram;
+
+import java.util.Map;
+
+public final class SQLStatsCommand extends Command {
+    public SQLStatsCommand(LaunchServer server) {
+        super(server);
+    }
+
+    @Override
+    public String getArgsDescription() {
+        return null;
+    }
+
+    @Override
+    public String getUsageDescription() {
+        return "Print SQL pools and statements latency stats";
+    }
+
+    @Override
+    public void invoke(String... args) {
+        for (SQLStats stats : SQLStats.getPools()) {
+            LogHelper.subInfo("Pool %s", stats);
+            for (Map.Entry<String, LatencyHistogram> statement : stats.getStatements().entrySet()) {
+                LogHelper.subInfo("  %s: %s", statement.getKey(), statement.getValue());
+            }
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package launchserver.command.auth;
+
+import launcher.helper.LogHelper;
+import launchserver.LaunchServer;
+import launchserver.command.Command;
+import launchserver.helpers.HTTPClient;
+
+public final class UpstreamStatsCommand extends Command {
+    public UpstreamStatsCommand(LaunchServer server) {
+        super(server);
+    }
+
+    @Override
+    public String getArgsDescription() {
+        return null;
+    }
+
+    @Override
+    public String getUsageDescription() {
+        return "Print remote auth and texture services circuit stats";
+    }
+
+    @Override
+    public void invoke(String... args) {
+        for (HTTPClient client : HTTPClient.getUpstreams()) {
+            LogHelper.subInfo("Upstream %s", client);
+        }
+    }
+}
@@ -60,6 +60,11 @@ public abstract class CommandHandler implements Runnable {
         registerCommand("checkServer", new CheckServerCommand(server));
         registerCommand("usernameToUUID", new UsernameToUUIDCommand(server));
         registerCommand("uuidToUsername", new UUIDToUsernameCommand(server));
+        registerCommand("authCacheStats", new AuthCacheStatsCommand(server));
+        registerCommand("bcryptStats", new BcryptStatsCommand(server));
+        registerCommand("upstreamStats", new UpstreamStatsCommand(server));
+        registerCommand("sqlStats", new SQLStatsCommand(server));
+        registerCommand("invalidateProfile", new InvalidateProfileCommand(server));
 
         // Register legacy commands
         registerCommand("dumpBinaryAuthHandler", new DumpBinaryAuthHandler(server));
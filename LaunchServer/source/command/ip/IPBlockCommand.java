@@ -3,8 +3,8 @@ package launchserver.command.ip;
 import launcher.helper.LogHelper;
 import launchserver.LaunchServer;
 import launchserver.auth.limiter.AuthLimiterIPConfig;
+import launchserver.auth.limiter.IPTrie;
 import launchserver.command.Command;
-import sun.net.util.IPAddressUtil;
 
 import java.util.Locale;
 
@@ -15,7 +15,7 @@ public class IPBlockCommand extends Command {
 
     @Override
     public String getArgsDescription() {
-        return "<type> <ip>";
+        return "<type> <ip[/prefix]>";
     }
 
     @Override
@@ -38,8 +38,8 @@ public class IPBlockCommand extends Command {
             return;
         }
 
-        if (!IPAddressUtil.isIPv4LiteralAddress(getIP) && !IPAddressUtil.isIPv6LiteralAddress(getIP)) {
-            LogHelper.error("This is not an IP address!");
+        if (!IPTrie.isValidRange(getIP)) {
+            LogHelper.error("This is not an IP address or CIDR range!");
             return;
         }
 
@@ -0,0 +1,436 @@
+package launchserver.helpers;
+
+import launcher.LauncherAPI;
+import launcher.helper.VerifyHelper;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.ToIntFunction;
+
+// W-TinyLFU: small LRU window admits new entries into segmented LRU main space,
+// probation victims are evicted only if they're used less often than the candidate
+public final class BoundedCache<K, V> {
+    private static final int WINDOW = 0;
+    private static final int PROBATION = 1;
+    private static final int PROTECTED = 2;
+    private static final int NONE = -1;
+
+    // Instance
+    private final int maximumSize;
+    private final long maximumWeight;
+    private final ToIntFunction<V> weigher;
+    private final int windowMaximum;
+    private final int protectedMaximum;
+    private final long expireAfterWrite;
+    private final long expireAfterAccess;
+    private final Map<K, Node<K, V>> data;
+
+    // Policy (guarded by lock, data map isn't)
+    private final ReentrantLock lock = new ReentrantLock();
+    private final FrequencySketch sketch;
+    private final AccessQueue<K, V>[] queues;
+    private long weight;
+
+    // Stats
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    @LauncherAPI
+    public BoundedCache(int maximumSize, long expireAfterWrite, long expireAfterAccess) {
+        this(maximumSize, Long.MAX_VALUE, v -> 1, expireAfterWrite, expireAfterAccess);
+    }
+
+    @LauncherAPI
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    public BoundedCache(int maximumSize, long maximumWeight, ToIntFunction<V> weigher, long expireAfterWrite, long expireAfterAccess) {
+        this.maximumSize = VerifyHelper.verifyInt(maximumSize, VerifyHelper.POSITIVE, "Maximum cache size can't be <= 0");
+        this.maximumWeight = VerifyHelper.verifyLong(maximumWeight, VerifyHelper.L_POSITIVE, "Maximum cache weight can't be <= 0");
+        this.weigher = weigher;
+        this.expireAfterWrite = VerifyHelper.verifyLong(expireAfterWrite, VerifyHelper.L_NOT_NEGATIVE, "Cache write TTL can't be < 0");
+        this.expireAfterAccess = VerifyHelper.verifyLong(expireAfterAccess, VerifyHelper.L_NOT_NEGATIVE, "Cache idle TTL can't be < 0");
+        windowMaximum = Math.max(1, maximumSize / 100);
+        protectedMaximum = (maximumSize - windowMaximum) * 4 / 5;
+        data = new ConcurrentHashMap<>(Math.min(maximumSize, 1024));
+        sketch = new FrequencySketch(maximumSize);
+        queues = new AccessQueue[] { new AccessQueue<>(), new AccessQueue<>(), new AccessQueue<>() };
+    }
+
+    @LauncherAPI
+    public V get(K key) {
+        Node<K, V> node = data.get(key);
+        if (node == null) {
+            misses.increment();
+            return null;
+        }
+
+        // Expired entries are dropped on read
+        long now = System.currentTimeMillis();
+        if (isExpired(node, now)) {
+            misses.increment();
+            if (data.remove(key, node)) {
+                evictions.increment();
+                lock.lock();
+                try {
+                    unlink(node);
+                } finally {
+                    lock.unlock();
+                }
+            }
+            return null;
+        }
+
+        // Record access if policy isn't busy, losing some reorders is fine
+        hits.increment();
+        node.accessTime = now;
+        if (lock.tryLock()) {
+            try {
+                sketch.increment(key);
+                onAccess(node);
+            } finally {
+                lock.unlock();
+            }
+        }
+        return node.value;
+    }
+
+    @LauncherAPI
+    public V put(K key, V value) {
+        Node<K, V> node = new Node<>(key, value, weigher.applyAsInt(value), System.currentTimeMillis());
+        Node<K, V> previous = data.put(key, node);
+        admit(node, previous);
+        return previous == null ? null : previous.value;
+    }
+
+    // Returns live cached value, or null if given value was stored
+    @LauncherAPI
+    public V putIfAbsent(K key, V value) {
+        Node<K, V> node = new Node<>(key, value, weigher.applyAsInt(value), System.currentTimeMillis());
+        while (true) {
+            Node<K, V> previous = data.putIfAbsent(key, node);
+            if (previous == null) {
+                admit(node, null);
+                return null;
+            }
+            if (!isExpired(previous, node.writeTime)) {
+                return previous.value;
+            }
+
+            // Replace expired entry
+            if (data.replace(key, previous, node)) {
+                evictions.increment();
+                admit(node, previous);
+                return null;
+            }
+        }
+    }
+
+    @LauncherAPI
+    public boolean remove(K key, V value) {
+        Node<K, V> node = data.get(key);
+        return node != null && node.value.equals(value) && remove(node);
+    }
+
+    @LauncherAPI
+    public V invalidate(K key) {
+        Node<K, V> node = data.get(key);
+        return node != null && remove(node) ? node.value : null;
+    }
+
+    @LauncherAPI
+    public void invalidateAll() {
+        lock.lock();
+        try {
+            data.clear();
+            for (AccessQueue<K, V> queue : queues) {
+                while (queue.head != null) {
+                    unlink(queue.head);
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @LauncherAPI
+    public void cleanUp() {
+        lock.lock();
+        try {
+            evict(System.currentTimeMillis());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @LauncherAPI
+    public int size() {
+        return data.size();
+    }
+
+    @LauncherAPI
+    public long hitCount() {
+        return hits.sum();
+    }
+
+    @LauncherAPI
+    public long missCount() {
+        return misses.sum();
+    }
+
+    @LauncherAPI
+    public long evictionCount() {
+        return evictions.sum();
+    }
+
+    @Override
+    public String toString() {
+        long hitCount = hits.sum();
+        long requestCount = hitCount + misses.sum();
+        return String.format("size=%d/%d, hits=%d, misses=%d, evictions=%d, hitRate=%.1f%%",
+                data.size(), maximumSize, hitCount, requestCount - hitCount, evictions.sum(),
+                requestCount == 0 ? 0.0D : hitCount * 100.0D / requestCount);
+    }
+
+    private boolean remove(Node<K, V> node) {
+        if (!data.remove(node.key, node)) {
+            return false;
+        }
+        lock.lock();
+        try {
+            unlink(node);
+        } finally {
+            lock.unlock();
+        }
+        return true;
+    }
+
+    private void admit(Node<K, V> node, Node<K, V> previous) {
+        lock.lock();
+        try {
+            if (previous != null) {
+                unlink(previous);
+            }
+
+            // Concurrent put or remove may have replaced this node already
+            sketch.increment(node.key);
+            if (data.get(node.key) == node) {
+                link(node, WINDOW);
+                evict(node.writeTime);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private boolean isExpired(Node<K, V> node, long now) {
+        return expireAfterWrite > 0 && now - node.writeTime >= expireAfterWrite ||
+                expireAfterAccess > 0 && now - node.accessTime >= expireAfterAccess;
+    }
+
+    private void onAccess(Node<K, V> node) {
+        switch (node.queue) {
+            case WINDOW:
+            case PROTECTED:
+                queues[node.queue].moveToTail(node);
+                break;
+            case PROBATION:
+                // Promote, protected overflow is demoted back to probation
+                unlink(node);
+                link(node, PROTECTED);
+                while (queues[PROTECTED].size > protectedMaximum) {
+                    Node<K, V> demoted = queues[PROTECTED].head;
+                    unlink(demoted);
+                    link(demoted, PROBATION);
+                }
+                break;
+            default:
+                break; // Already removed
+        }
+    }
+
+    private void evict(long now) {
+        // Queues are in access order, so idle entries are at heads
+        for (AccessQueue<K, V> queue : queues) {
+            while (queue.head != null && isExpired(queue.head, now)) {
+                evict(queue.head);
+            }
+        }
+
+        // Window overflow becomes admission candidates
+        while (queues[WINDOW].size > windowMaximum) {
+            Node<K, V> candidate = queues[WINDOW].head;
+            unlink(candidate);
+            link(candidate, PROBATION);
+        }
+
+        // Candidate (probation tail) fights victim (probation head)
+        while ((data.size() > maximumSize || weight > maximumWeight) && linkedSize() > 0) {
+            AccessQueue<K, V> probation = queues[PROBATION];
+            if (probation.head == null) {
+                evict(queues[PROTECTED].head != null ? queues[PROTECTED].head : queues[WINDOW].head);
+                continue;
+            }
+            Node<K, V> victim = probation.head;
+            Node<K, V> candidate = probation.tail;
+            evict(victim == candidate || sketch.frequency(candidate.key) > sketch.frequency(victim.key) ? victim : candidate);
+        }
+    }
+
+    private void evict(Node<K, V> node) {
+        unlink(node);
+        if (data.remove(node.key, node)) {
+            evictions.increment();
+        }
+    }
+
+    private int linkedSize() {
+        return queues[WINDOW].size + queues[PROBATION].size + queues[PROTECTED].size;
+    }
+
+    private void link(Node<K, V> node, int queue) {
+        node.queue = queue;
+        queues[queue].addTail(node);
+        weight += node.weight;
+    }
+
+    private void unlink(Node<K, V> node) {
+        if (node.queue != NONE) {
+            queues[node.queue].remove(node);
+            node.queue = NONE;
+            weight -= node.weight;
+        }
+    }
+
+    private static final class Node<K, V> {
+        private final K key;
+        private final V value;
+        private final int weight;
+        private final long writeTime;
+        private volatile long accessTime;
+
+        // Policy state
+        private int queue = NONE;
+        private Node<K, V> prev;
+        private Node<K, V> next;
+
+        private Node(K key, V value, int weight, long now) {
+            this.key = key;
+            this.value = value;
+            this.weight = weight;
+            writeTime = now;
+            accessTime = now;
+        }
+    }
+
+    private static final class AccessQueue<K, V> {
+        private Node<K, V> head; // Least recently used
+        private Node<K, V> tail;
+        private int size;
+
+        private void addTail(Node<K, V> node) {
+            node.prev = tail;
+            node.next = null;
+            if (tail == null) {
+                head = node;
+            } else {
+                tail.next = node;
+            }
+            tail = node;
+            size++;
+        }
+
+        private void moveToTail(Node<K, V> node) {
+            if (node != tail) {
+                remove(node);
+                addTail(node);
+            }
+        }
+
+        private void remove(Node<K, V> node) {
+            if (node.prev == null) {
+                head = node.next;
+            } else {
+                node.prev.next = node.next;
+            }
+            if (node.next == null) {
+                tail = node.prev;
+            } else {
+                node.next.prev = node.prev;
+            }
+            node.prev = null;
+            node.next = null;
+            size--;
+        }
+    }
+
+    private static final class FrequencySketch {
+        private static final int[] SEEDS = { 0x97CB3127, 0xB7E15163, 0x9E3779B9, 0xC2B2AE35 };
+        private static final int MAX_COUNT = 15;
+        private static final long HALF_MASK = 0x7777777777777777L; // Clears top bit of each counter after shift
+
+        // Instance, 4-bit counters packed 16 per long
+        private final long[] table;
+        private final int counterMask;
+        private final int sampleSize;
+        private int additions;
+
+        private FrequencySketch(int maximumSize) {
+            int counters = Integer.highestOneBit(Math.max(maximumSize, 16) - 1) << 1;
+            table = new long[counters >>> 4];
+            counterMask = counters - 1;
+            sampleSize = maximumSize <= Integer.MAX_VALUE / 10 ? maximumSize * 10 : Integer.MAX_VALUE;
+        }
+
+        private int frequency(Object key) {
+            int hash = spread(key.hashCode());
+            int frequency = MAX_COUNT;
+            for (int seed : SEEDS) {
+                frequency = Math.min(frequency, count(indexOf(hash, seed)));
+            }
+            return frequency;
+        }
+
+        private void increment(Object key) {
+            int hash = spread(key.hashCode());
+            boolean added = false;
+            for (int seed : SEEDS) {
+                int index = indexOf(hash, seed);
+                if (count(index) < MAX_COUNT) {
+                    table[index >>> 4] += 1L << shift(index);
+                    added = true;
+                }
+            }
+
+            // Age counters so old popularity fades out
+            if (added && ++additions >= sampleSize) {
+                for (int i = 0; i < table.length; i++) {
+                    table[i] = table[i] >>> 1 & HALF_MASK;
+                }
+                additions >>>= 1;
+            }
+        }
+
+        private int count(int index) {
+            return (int) (table[index >>> 4] >>> shift(index)) & MAX_COUNT;
+        }
+
+        private int indexOf(int hash, int seed) {
+            int index = hash * seed;
+            index += index >>> 16;
+            return index & counterMask;
+        }
+
+        private static int shift(int index) {
+            return (index & 15) << 2;
+        }
+
+        private static int spread(int hash) {
+            hash ^= hash >>> 17;
+            hash *= 0xED5AD4BB;
+            hash ^= hash >>> 11;
+            return hash;
+        }
+    }
+}
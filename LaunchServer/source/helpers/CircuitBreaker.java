@@ -0,0 +1,164 @@
+package launchserver.helpers;
+
+import launcher.LauncherAPI;
+import launcher.helper.LogHelper;
+import launcher.helper.VerifyHelper;
+
+import java.util.concurrent.atomic.LongAdder;
+
+// Opens after too many failures among recent calls, then lets single probe through once open time passes
+public final class CircuitBreaker {
+    private static final int WINDOW_SIZE = 20;
+    private static final int MIN_CALLS = 10;
+    private static final int LATENCY_WINDOW = 1000;
+    private static final int MIN_LATENCY_SAMPLES = 20;
+
+    // States
+    private static final int CLOSED = 0;
+    private static final int OPEN = 1;
+    private static final int HALF_OPEN = 2;
+
+    // Instance
+    private final String name;
+    private final int failureRate;
+    private final long openMillis;
+
+    // Recent outcomes ring (guarded by this)
+    private final boolean[] outcomes = new boolean[WINDOW_SIZE];
+    private int index;
+    private int calls;
+    private int failures;
+    private int state = CLOSED;
+    private long openedAt;
+    private boolean probing;
+
+    // Latency, previous full window is used once available
+    private volatile LatencyHistogram latency = new LatencyHistogram();
+    private volatile LatencyHistogram previousLatency;
+    private final LongAdder rejected = new LongAdder();
+
+    @LauncherAPI
+    public CircuitBreaker(String name, int failureRate, long openMillis) {
+        this.name = name;
+        this.failureRate = VerifyHelper.verifyInt(failureRate, VerifyHelper.range(1, 100), "Circuit failure rate should be 1-100%");
+        this.openMillis = VerifyHelper.verifyLong(openMillis, VerifyHelper.L_POSITIVE, "Circuit open time can't be <= 0");
+    }
+
+    @LauncherAPI
+    public synchronized boolean tryAcquire() {
+        switch (state) {
+            case OPEN:
+                if (System.currentTimeMillis() - openedAt < openMillis) {
+                    rejected.increment();
+                    return false;
+                }
+                state = HALF_OPEN;
+                probing = true;
+                LogHelper.info("Circuit for '%s' is half-open, probing", name);
+                return true;
+            case HALF_OPEN:
+                if (probing) {
+                    rejected.increment();
+                    return false;
+                }
+                probing = true;
+                return true;
+            default:
+                return true;
+        }
+    }
+
+    @LauncherAPI
+    public synchronized void onSuccess() {
+        if (state == HALF_OPEN) {
+            LogHelper.info("Circuit for '%s' is closed", name);
+            reset(CLOSED);
+            return;
+        }
+        record(false);
+    }
+
+    @LauncherAPI
+    public synchronized void onFailure() {
+        if (state == HALF_OPEN) {
+            LogHelper.warning("Circuit for '%s' probe failed, opening again", name);
+            reset(OPEN);
+            return;
+        }
+        record(true);
+        if (state == CLOSED && calls >= MIN_CALLS && failures * 100 >= calls * failureRate) {
+            LogHelper.warning("Circuit for '%s' is open: %d of %d recent calls failed", name, failures, calls);
+            reset(OPEN);
+        }
+    }
+
+    @LauncherAPI
+    public synchronized void onIgnored() {
+        // Call didn't reach upstream, so it says nothing about its health
+        if (state == HALF_OPEN) {
+            probing = false;
+        }
+    }
+
+    @LauncherAPI
+    public void recordLatency(long nanos) {
+        LatencyHistogram current = latency;
+        current.record(nanos);
+        if (current.count() >= LATENCY_WINDOW) {
+            synchronized (this) {
+                if (latency == current) {
+                    previousLatency = current;
+                    latency = new LatencyHistogram();
+                }
+            }
+        }
+    }
+
+    @LauncherAPI
+    public long percentileMillis(double percentile) {
+        LatencyHistogram histogram = previousLatency;
+        if (histogram == null) {
+            histogram = latency;
+            if (histogram.count() < MIN_LATENCY_SAMPLES) {
+                return -1; // Not enough samples yet
+            }
+        }
+        return histogram.percentileMillis(percentile);
+    }
+
+    @LauncherAPI
+    public synchronized boolean isOpen() {
+        return state != CLOSED;
+    }
+
+    @Override
+    public synchronized String toString() {
+        LatencyHistogram histogram = previousLatency == null ? latency : previousLatency;
+        return String.format("%s: state=%s, recentFailures=%d/%d, rejected=%d, latency=[%s]", name,
+                state == CLOSED ? "closed" : state == OPEN ? "open" : "half-open", failures, calls, rejected.sum(), histogram);
+    }
+
+    private void record(boolean failure) {
+        if (calls == WINDOW_SIZE) {
+            if (outcomes[index]) {
+                failures--;
+            }
+        } else {
+            calls++;
+        }
+        outcomes[index] = failure;
+        if (failure) {
+            failures++;
+        }
+        index = (index + 1) % WINDOW_SIZE;
+    }
+
+    private void reset(int newState) {
+        state = newState;
+        openedAt = System.currentTimeMillis();
+        probing = false;
+        index = 0;
+        calls = 0;
+        failures = 0;
+    }
+}
@@ -0,0 +1,399 @@
+package launchserver.helpers;
+
+import launcher.LauncherAPI;
+import launcher.helper.CommonHelper;
+import launcher.helper.IOHelper;
+import launcher.helper.VerifyHelper;
+import launcher.serialize.config.entry.BlockConfigEntry;
+import launcher.serialize.config.entry.BooleanConfigEntry;
+import launcher.serialize.config.entry.IntegerConfigEntry;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.net.URLConnection;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+// JDK 8 has no HTTP/2 client, so this bounds HttpURLConnection instead: every request has connect and read
+// timeouts, in-flight requests per client are limited, and bodies are always drained so sockets are kept alive.
+// Clients created from config also fail fast while their upstream is down, and may hedge slow GETs
+public final class HTTPClient {
+    @LauncherAPI
+    public static final int MAX_CONNECTIONS = VerifyHelper.verifyInt(
+            Integer.parseInt(System.getProperty("launcher.httpMaxConnections", Integer.toString(64))),
+            VerifyHelper.POSITIVE, "launcher.httpMaxConnections can't be <= 0");
+    @LauncherAPI
+    public static final int KEEP_ALIVE_CONNECTIONS = VerifyHelper.verifyInt(
+            Integer.parseInt(System.getProperty("launcher.httpKeepAlive", Integer.toString(32))),
+            VerifyHelper.POSITIVE, "launcher.httpKeepAlive can't be <= 0");
+    @LauncherAPI
+    public static final int ASYNC_THREADS = VerifyHelper.verifyInt(
+            Integer.parseInt(System.getProperty("launcher.httpAsyncThreads", Integer.toString(16))),
+            VerifyHelper.POSITIVE, "launcher.httpAsyncThreads can't be <= 0");
+    @LauncherAPI
+    public static final HTTPClient DEFAULT;
+    private static final double HEDGE_PERCENTILE = 0.95D;
+    private static final long MIN_HEDGE_DELAY = 10L;
+    private static final String USER_AGENT = "Mozilla/4.0 (compatible; MSIE 6.0; Windows NT 5.0)"; // Fix for stupid servers
+    private static final ThreadPoolExecutor ASYNC_EXECUTOR = new ThreadPoolExecutor(ASYNC_THREADS, ASYNC_THREADS,
+            60L, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), r -> CommonHelper.newThread("HTTP Client Thread", true, r));
+    private static final Map<String, HTTPClient> UPSTREAMS = new ConcurrentSkipListMap<>(); // By name, for stats
+
+    static {
+        // JDK keeps only 5 idle sockets per host by default, read once on first keep-alive
+        if (System.getProperty("http.maxConnections") == null) {
+            System.setProperty("http.maxConnections", Integer.toString(KEEP_ALIVE_CONNECTIONS));
+        }
+        ASYNC_EXECUTOR.allowCoreThreadTimeOut(true);
+        DEFAULT = new HTTPClient(IOHelper.HTTP_TIMEOUT, IOHelper.HTTP_TIMEOUT, MAX_CONNECTIONS);
+    }
+
+    // Instance
+    private final int connectTimeout;
+    private final int readTimeout;
+    private final Semaphore connections;
+    private final CircuitBreaker breaker; // null if failures aren't tracked
+    private final boolean hedge;
+    private final ThreadPoolExecutor hedgeExecutor; // Own per client, so hedges don't queue behind other upstreams
+    private final LongAdder hedged = new LongAdder();
+
+    @LauncherAPI
+    public HTTPClient(int connectTimeout, int readTimeout, int maxConnections) {
+        this(connectTimeout, readTimeout, maxConnections, null, false);
+    }
+
+    @LauncherAPI
+    public HTTPClient(int connectTimeout, int readTimeout, int maxConnections, CircuitBreaker breaker, boolean hedge) {
+        this.connectTimeout = VerifyHelper.verifyInt(connectTimeout, VerifyHelper.POSITIVE, "HTTP connect timeout can't be <= 0");
+        this.readTimeout = VerifyHelper.verifyInt(readTimeout, VerifyHelper.POSITIVE, "HTTP read timeout can't be <= 0");
+        connections = new Semaphore(VerifyHelper.verifyInt(maxConnections, VerifyHelper.POSITIVE, "HTTP max connections can't be <= 0"));
+        this.breaker = breaker;
+        this.hedge = hedge && breaker != null; // Hedge delay comes from breaker latency
+        if (this.hedge) {
+            hedgeExecutor = new ThreadPoolExecutor(maxConnections, maxConnections, 60L, TimeUnit.SECONDS,
+                    new LinkedBlockingQueue<>(), r -> CommonHelper.newThread("HTTP Hedge Thread", true, r));
+            hedgeExecutor.allowCoreThreadTimeOut(true);
+        } else {
+            hedgeExecutor = null;
+        }
+    }
+
+    @LauncherAPI
+    public static HTTPClient fromConfig(String name, BlockConfigEntry block) {
+        return fromConfig(name, block, IOHelper.HTTP_TIMEOUT);
+    }
+
+    @LauncherAPI
+    public static HTTPClient fromConfig(String name, BlockConfigEntry block, int defaultConnectTimeout) {
+        CircuitBreaker breaker = new CircuitBreaker(name,
+                block.hasEntry("circuitFailureRate") ? block.getEntryValue("circuitFailureRate", IntegerConfigEntry.class) : 50,
+                (block.hasEntry("circuitOpenTime") ? block.getEntryValue("circuitOpenTime", IntegerConfigEntry.class) : 30) * 1000L);
+        HTTPClient client = new HTTPClient(
+                block.hasEntry("httpConnectTimeout") ? block.getEntryValue("httpConnectTimeout", IntegerConfigEntry.class) : defaultConnectTimeout,
+                block.hasEntry("httpReadTimeout") ? block.getEntryValue("httpReadTimeout", IntegerConfigEntry.class) : IOHelper.HTTP_TIMEOUT,
+                block.hasEntry("httpMaxConnections") ? block.getEntryValue("httpMaxConnections", IntegerConfigEntry.class) : MAX_CONNECTIONS,
+                breaker, block.hasEntry("hedgeRequests") && block.getEntryValue("hedgeRequests", BooleanConfigEntry.class));
+        UPSTREAMS.put(name, client);
+        return client;
+    }
+
+    @LauncherAPI
+    public static Collection<HTTPClient> getUpstreams() {
+        return Collections.unmodifiableCollection(UPSTREAMS.values());
+    }
+
+    @LauncherAPI
+    public Response get(URL url) throws IOException {
+        return send(url, "GET", null, null, Collections.emptyMap());
+    }
+
+    @LauncherAPI
+    public Response post(URL url, String contentType, byte[] body) throws IOException {
+        return send(url, "POST", contentType, body, Collections.emptyMap());
+    }
+
+    @LauncherAPI
+    public Response send(URL url, String method, String contentType, byte[] body, Map<String, String> headers) throws IOException {
+        if (breaker == null) {
+            return sendAttempt(url, method, contentType, body, headers);
+        }
+        if (!breaker.tryAcquire()) {
+            throw new IOException(String.format("Upstream '%s' is unavailable, try again later", url.getHost()));
+        }
+
+        // Only idempotent requests may be sent twice
+        boolean success = false;
+        boolean saturated = false;
+        try {
+            long hedgeDelay = hedge && ("GET".equals(method) || "HEAD".equals(method)) ?
+                    breaker.percentileMillis(HEDGE_PERCENTILE) : -1;
+            Response response = hedgeDelay < 0 ? sendAttempt(url, method, contentType, body, headers) :
+                    sendHedged(url, method, headers, Math.max(hedgeDelay, MIN_HEDGE_DELAY));
+            success = response.statusCode < 500;
+            return response;
+        } catch (SaturatedException e) {
+            saturated = true; // Our own limit, not upstream failure
+            throw e;
+        } finally {
+            if (saturated) {
+                breaker.onIgnored();
+            } else if (success) {
+                breaker.onSuccess();
+            } else {
+                breaker.onFailure();
+            }
+        }
+    }
+
+    @LauncherAPI
+    public CircuitBreaker getBreaker() {
+        return breaker;
+    }
+
+    @LauncherAPI
+    public long getHedgedCount() {
+        return hedged.sum();
+    }
+
+    @Override
+    public String toString() {
+        return breaker == null ? "HTTPClient" : String.format("%s, hedged=%d", breaker, hedged.sum());
+    }
+
+    private Response sendHedged(URL url, String method, Map<String, String> headers, long delay) throws IOException {
+        CompletableFuture<Response> primary = sendAttemptAsync(url, method, headers);
+        try {
+            return primary.get(delay, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException ignored) {
+            // Slower than usual, race second request
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for HTTP response", e);
+        } catch (ExecutionException e) {
+            throw unwrap(e.getCause());
+        }
+        hedged.increment();
+        CompletableFuture<Response> secondary = sendAttemptAsync(url, method, headers);
+
+        // First response wins, fail only if both failed
+        CompletableFuture<Response> result = new CompletableFuture<>();
+        AtomicInteger failed = new AtomicInteger();
+        primary.whenComplete((response, exc) -> complete(result, failed, response, exc));
+        secondary.whenComplete((response, exc) -> complete(result, failed, response, exc));
+        try {
+            return result.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for HTTP response", e);
+        } catch (ExecutionException e) {
+            throw unwrap(e.getCause());
+        }
+    }
+
+    private CompletableFuture<Response> sendAttemptAsync(URL url, String method, Map<String, String> headers) {
+        CompletableFuture<Response> future = new CompletableFuture<>();
+        try {
+            hedgeExecutor.execute(() -> {
+                try {
+                    future.complete(sendAttempt(url, method, null, null, headers));
+                } catch (Throwable exc) {
+                    future.completeExceptionally(exc);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    private Response sendAttempt(URL url, String method, String contentType, byte[] body, Map<String, String> headers) throws IOException {
+        URLConnection urlConnection = url.openConnection();
+        if (!(urlConnection instanceof HttpURLConnection)) {
+            throw new IOException(String.format("Not an HTTP URL: '%s'", url));
+        }
+
+        // Wait for free connection, but not longer than connect itself could take
+        try {
+            if (!connections.tryAcquire(connectTimeout, TimeUnit.MILLISECONDS)) {
+                throw new SaturatedException(String.format("Too many concurrent HTTP requests to '%s'", url.getHost()));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for HTTP connection", e);
+        }
+        HttpURLConnection connection = (HttpURLConnection) urlConnection;
+        long start = System.nanoTime();
+        try {
+            Response response = send(connection, method, contentType, body, headers);
+            if (breaker != null && response.statusCode < 500) {
+                breaker.recordLatency(System.nanoTime() - start);
+            }
+            return response;
+        } catch (IOException | RuntimeException e) {
+            connection.disconnect(); // Never return broken socket to keep-alive cache
+            throw e;
+        } finally {
+            connections.release();
+        }
+    }
+
+    @LauncherAPI
+    public CompletableFuture<Response> sendAsync(URL url, String method, String contentType, byte[] body, Map<String, String> headers) {
+        CompletableFuture<Response> future = new CompletableFuture<>();
+        try {
+            ASYNC_EXECUTOR.execute(() -> {
+                try {
+                    future.complete(send(url, method, contentType, body, headers));
+                } catch (Throwable exc) {
+                    future.completeExceptionally(exc);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    private static void complete(CompletableFuture<Response> result, AtomicInteger failed, Response response, Throwable exc) {
+        if (exc == null) {
+            result.complete(response);
+        } else if (failed.incrementAndGet() == 2) {
+            result.completeExceptionally(exc);
+        }
+    }
+
+    private static IOException unwrap(Throwable exc) {
+        if (exc instanceof IOException) {
+            return (IOException) exc;
+        }
+        if (exc instanceof RuntimeException) {
+            throw (RuntimeException) exc;
+        }
+        if (exc instanceof Error) {
+            throw (Error) exc;
+        }
+        return new IOException(exc);
+    }
+
+    private Response send(HttpURLConnection connection, String method, String contentType, byte[] body, Map<String, String> headers) throws IOException {
+        connection.setConnectTimeout(connectTimeout);
+        connection.setReadTimeout(readTimeout);
+        connection.setUseCaches(false);
+        connection.setDoInput(true);
+        connection.setRequestMethod(method);
+        connection.setRequestProperty("User-Agent", USER_AGENT);
+        for (Map.Entry<String, String> header : headers.entrySet()) {
+            connection.setRequestProperty(header.getKey(), header.getValue());
+        }
+
+        // Write request body
+        if (body != null) {
+            connection.setDoOutput(true);
+            connection.setFixedLengthStreamingMode(body.length);
+            if (contentType != null) {
+                connection.setRequestProperty("Content-Type", contentType);
+            }
+            try (OutputStream output = connection.getOutputStream()) {
+                output.write(body);
+            }
+        }
+
+        // Read whole response, so socket can be reused
+        int statusCode = connection.getResponseCode();
+        InputStream input = statusCode >= 400 ? connection.getErrorStream() : connection.getInputStream();
+        byte[] responseBody;
+        if (input == null || "HEAD".equals(method)) {
+            responseBody = new byte[0];
+            if (input != null) {
+                input.close();
+            }
+        } else {
+            try (InputStream responseInput = input) {
+                responseBody = IOHelper.read(responseInput);
+            }
+        }
+        return new Response(statusCode, connection.getHeaderFields(), responseBody);
+    }
+
+    private static final class SaturatedException extends IOException {
+        private static final long serialVersionUID = -4021653348921478571L;
+
+        private SaturatedException(String message) {
+            super(message);
+        }
+    }
+
+    public static final class Response {
+        @LauncherAPI
+        public final int statusCode;
+        @LauncherAPI
+        public final byte[] body;
+        private final Map<String, List<String>> headers = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+
+        private Response(int statusCode, Map<String, List<String>> headers, byte[] body) {
+            this.statusCode = statusCode;
+            this.body = body;
+            for (Map.Entry<String, List<String>> header : headers.entrySet()) {
+                if (header.getKey() != null) { // Status line
+                    this.headers.put(header.getKey(), header.getValue());
+                }
+            }
+        }
+
+        @LauncherAPI
+        public boolean isSuccess() {
+            return 200 <= statusCode && statusCode < 300;
+        }
+
+        @LauncherAPI
+        public String getHeader(String name) {
+            List<String> values = headers.get(name);
+            return values == null || values.isEmpty() ? null : values.get(values.size() - 1);
+        }
+
+        @LauncherAPI
+        public long getDateHeader(String name) {
+            String value = getHeader(name);
+            if (value == null) {
+                return 0;
+            }
+            try {
+                return ZonedDateTime.parse(value, DateTimeFormatter.RFC_1123_DATE_TIME).toInstant().toEpochMilli();
+            } catch (DateTimeParseException ignored) {
+                return 0;
+            }
+        }
+
+        @LauncherAPI
+        public String getBodyString() {
+            return new String(body, getCharset());
+        }
+
+        private Charset getCharset() {
+            String contentType = getHeader("Content-Type");
+            if (contentType != null) {
+                for (String param : contentType.split(";")) {
+                    param = param.trim();
+                    if (param.regionMatches(true, 0, "charset=", 0, 8)) {
+                        try {
+                            return Charset.forName(param.substring(8).replace("\"", ""));
+                        } catch (IllegalArgumentException ignored) {
+                            break; // Unknown charset, use default
+                        }
+                    }
+                }
+            }
+            return StandardCharsets.UTF_8;
+        }
+    }
+}
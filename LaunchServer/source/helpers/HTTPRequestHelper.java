@@ -3,88 +3,54 @@ package launchserver.helpers;
 import com.eclipsesource.json.Json;
 import com.eclipsesource.json.JsonObject;
 import com.eclipsesource.json.WriterConfig;
-import launcher.helper.IOHelper;
 import launcher.helper.LogHelper;
 
-import java.io.*;
-import java.net.HttpURLConnection;
+import java.io.IOException;
 import java.net.URL;
-import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
+import java.util.Collections;
 
 public class HTTPRequestHelper {
-    private static HttpURLConnection makeRequest(URL url, String requestMethod) throws IOException {
-        HttpURLConnection connection = (HttpURLConnection) url.openConnection();
-        connection.setDoOutput(true);
-        connection.setRequestMethod(requestMethod);
-        return connection;
+    private static HTTPClient.Response makeRequest(HTTPClient client, URL url, JsonObject request) throws IOException {
+        return request == null ? client.get(url) :
+                client.post(url, "application/json", request.toString(WriterConfig.MINIMAL).getBytes(StandardCharsets.UTF_8));
     }
 
     public static JsonObject makeAuthlibRequest(URL url, JsonObject request, String requestType) throws IOException {
-        HttpURLConnection connection = request == null ?
-                (HttpURLConnection) IOHelper.newConnection(url) :
-                makeRequest(url, "POST");
-
-        // Make request
-        if (request != null) {
-            connection.setRequestProperty("Content-Type", "application/json");
-            try (OutputStream output = connection.getOutputStream()) {
-                output.write(request.toString(WriterConfig.MINIMAL).getBytes(StandardCharsets.UTF_8));
-            }
-        }
-        int statusCode = connection.getResponseCode();
-
-        // Read response
-        InputStream errorInput = connection.getErrorStream();
-        try (InputStream input = errorInput == null ? connection.getInputStream() : errorInput) {
-            String charset = connection.getContentEncoding();
-            Charset charsetObject = charset == null ?
-                    IOHelper.UNICODE_CHARSET : Charset.forName(charset);
+        return makeAuthlibRequest(HTTPClient.DEFAULT, url, request, requestType);
+    }
 
-            // Parse response
-            String json = new String(IOHelper.read(input), charsetObject);
-            LogHelper.subDebug("Raw " + requestType + " response: '" + json + '\'');
+    public static JsonObject makeAuthlibRequest(HTTPClient client, URL url, JsonObject request, String requestType) throws IOException {
+        HTTPClient.Response response = makeRequest(client, url, request);
 
-            if (200 <= statusCode && statusCode < 300) {
-                return Json.parse(json).asObject();
-            } else {
-                return json.isEmpty() ? null : Json.parse(json).asObject();
-            }
+        // Parse response
+        String json = response.getBodyString();
+        LogHelper.subDebug("Raw " + requestType + " response: '" + json + '\'');
+        if (response.isSuccess()) {
+            return Json.parse(json).asObject();
+        } else {
+            return json.isEmpty() ? null : Json.parse(json).asObject();
         }
     }
 
     public static boolean fileExist(URL url) throws IOException {
-        HttpURLConnection request = makeRequest(url, "HEAD");
-        int responseCode = request.getResponseCode();
-        return responseCode >= 200 && responseCode < 300;
+        return HTTPClient.DEFAULT.send(url, "HEAD", null, null, Collections.emptyMap()).isSuccess();
     }
 
     public static String getFile(URL url) throws IOException {
-        HttpURLConnection request = makeRequest(url, "GET");
-        BufferedReader in = new BufferedReader(new InputStreamReader(request.getInputStream()));
-        StringBuilder response = new StringBuilder();
-        String inputLine;
-
-        while ((inputLine = in.readLine()) != null) {
-            response.append(inputLine);
+        HTTPClient.Response response = HTTPClient.DEFAULT.get(url);
+        if (!response.isSuccess()) {
+            throw new IOException(String.format("HTTP %d: '%s'", response.statusCode, url));
         }
-        in.close();
-        return response.toString();
+        return response.getBodyString().replace("\r", "").replace("\n", ""); // Lines were joined before
     }
 
     public static int authJoinRequest(URL url, JsonObject request, String authType) throws IOException {
-        HttpURLConnection connection = request == null ?
-                (HttpURLConnection) IOHelper.newConnection(url) :
-                makeRequest(url, "POST");
+        return authJoinRequest(HTTPClient.DEFAULT, url, request, authType);
+    }
 
-        // Make request
-        if (request != null) {
-            connection.setRequestProperty("Content-Type", "application/json");
-            try (OutputStream output = connection.getOutputStream()) {
-                output.write(request.toString(WriterConfig.MINIMAL).getBytes(StandardCharsets.UTF_8));
-            }
-        }
-        int statusCode = connection.getResponseCode();
+    public static int authJoinRequest(HTTPClient client, URL url, JsonObject request, String authType) throws IOException {
+        int statusCode = makeRequest(client, url, request).statusCode;
         LogHelper.subDebug("Raw " + authType + " status сode: '" + statusCode + '\'');
         return statusCode;
     }
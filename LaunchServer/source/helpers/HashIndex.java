@@ -0,0 +1,128 @@
+package launchserver.helpers;
+
+import launcher.LauncherAPI;
+import launcher.hasher.HashedDir;
+import launcher.hasher.HashedFile;
+import launcher.helper.IOHelper;
+import launcher.helper.LogHelper;
+import launcher.helper.SecurityHelper;
+import launcher.serialize.HInput;
+import launcher.serialize.HOutput;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+public final class HashIndex implements HashedDir.Digester {
+    private static final int MAGIC = 0x48494458; // "HIDX"
+    private static final int VERSION = 2;
+
+    // File modified right before hashing may be modified again within the same mtime tick
+    private static final long RACY_WINDOW = 2000L;
+
+    // Instance
+    private final Path dir;
+    private final Map<String, IndexEntry> previous;
+    private final Map<String, IndexEntry> current = new ConcurrentHashMap<>(1024);
+    private final long startTime = System.currentTimeMillis();
+
+    @LauncherAPI
+    public HashIndex(Path dir) {
+        this(dir, new ConcurrentHashMap<>(0));
+    }
+
+    private HashIndex(Path dir, Map<String, IndexEntry> previous) {
+        this.dir = dir;
+        this.previous = previous;
+    }
+
+    @LauncherAPI
+    public static HashIndex read(Path dir, Path file) {
+        if (!IOHelper.isFile(file)) {
+            return new HashIndex(dir);
+        }
+
+        // Read previous index
+        try (HInput input = new HInput(IOHelper.newBufferedInputStream(IOHelper.newInput(file)))) {
+            if (input.readInt() != MAGIC || input.readVarInt() != VERSION) {
+                throw new IOException("Hash index magic or version mismatch");
+            }
+            int count = input.readLength(0);
+            Map<String, IndexEntry> entries = new ConcurrentHashMap<>(count);
+            for (int i = 0; i < count; i++) {
+                entries.put(input.readString(0), new IndexEntry(input));
+            }
+            return new HashIndex(dir, entries);
+        } catch (IOException e) {
+            LogHelper.warning("Hash index '%s' is broken, rehashing everything: %s", file, e.getMessage());
+            return new HashIndex(dir);
+        }
+    }
+
+    @Override
+    public byte[] digest(Path file, BasicFileAttributes attrs) throws IOException {
+        String path = IOHelper.toString(dir.relativize(file));
+        long size = attrs.size();
+        long modified = attrs.lastModifiedTime().toMillis();
+        Object key = attrs.fileKey(); // Not available on every filesystem, e.g. on Windows
+        String fileKey = key == null ? null : key.toString();
+
+        // Reuse digest if file wasn't changed since last time
+        IndexEntry entry = previous.get(path);
+        if (entry == null || entry.size != size || entry.modified != modified || !Objects.equals(entry.fileKey, fileKey)) {
+            entry = new IndexEntry(size, modified, fileKey, SecurityHelper.digest(HashedFile.DIGEST_ALGO, file));
+        }
+        if (modified < startTime - RACY_WINDOW) {
+            current.put(path, entry);
+        }
+        return entry.digest;
+    }
+
+    @LauncherAPI
+    public void write(Path file) throws IOException {
+        Path temp = file.resolveSibling(IOHelper.getFileName(file) + ".tmp");
+        try (HOutput output = new HOutput(IOHelper.newBufferedOutStream(IOHelper.newOutput(temp)))) {
+            output.writeInt(MAGIC);
+            output.writeVarInt(VERSION);
+            output.writeLength(current.size(), 0);
+            for (Entry<String, IndexEntry> mapEntry : current.entrySet()) {
+                output.writeString(mapEntry.getKey(), 0);
+                mapEntry.getValue().write(output);
+            }
+        }
+        IOHelper.move(temp, file);
+    }
+
+    private static final class IndexEntry {
+        private final long size;
+        private final long modified;
+        private final String fileKey;
+        private final byte[] digest;
+
+        private IndexEntry(long size, long modified, String fileKey, byte[] digest) {
+            this.size = size;
+            this.modified = modified;
+            this.fileKey = fileKey;
+            this.digest = digest;
+        }
+
+        private IndexEntry(HInput input) throws IOException {
+            this(input.readVarLong(), input.readLong(), input.readBoolean() ? input.readString(255) : null,
+                    input.readByteArray(-HashedFile.DIGEST_ALGO.bytes));
+        }
+
+        private void write(HOutput output) throws IOException {
+            output.writeVarLong(size);
+            output.writeLong(modified);
+            output.writeBoolean(fileKey != null);
+            if (fileKey != null) {
+                output.writeString(fileKey, 255);
+            }
+            output.writeByteArray(digest, -HashedFile.DIGEST_ALGO.bytes);
+        }
+    }
+}
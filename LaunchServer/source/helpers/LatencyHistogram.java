@@ -0,0 +1,59 @@
+package launchserver.helpers;
+
+import launcher.LauncherAPI;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+// Power-of-two millisecond buckets: <1, <2, <4, ..., >= 2^(BUCKETS - 2) ms
+public final class LatencyHistogram {
+    private static final int BUCKETS = 16;
+
+    // Instance
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+
+    @LauncherAPI
+    public void record(long nanos) {
+        long millis = TimeUnit.NANOSECONDS.toMillis(Math.max(nanos, 0));
+        int bucket = millis == 0 ? 0 : Math.min(64 - Long.numberOfLeadingZeros(millis), BUCKETS - 1);
+        buckets.incrementAndGet(bucket);
+        count.increment();
+        totalNanos.add(nanos);
+    }
+
+    @LauncherAPI
+    public long count() {
+        return count.sum();
+    }
+
+    @LauncherAPI
+    public long percentileMillis(double percentile) {
+        long total = 0;
+        long[] snapshot = new long[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++) {
+            snapshot[i] = buckets.get(i);
+            total += snapshot[i];
+        }
+
+        // Upper bound of bucket where percentile falls
+        long rank = (long) Math.ceil(total * percentile);
+        for (int i = 0; i < BUCKETS; i++) {
+            rank -= snapshot[i];
+            if (rank <= 0) {
+                return 1L << i;
+            }
+        }
+        return 0;
+    }
+
+    @Override
+    public String toString() {
+        long countValue = count.sum();
+        return String.format("count=%d, avg=%.1fms, p50<%dms, p99<%dms", countValue,
+                countValue == 0 ? 0.0D : totalNanos.sum() / 1.0e6D / countValue,
+                percentileMillis(0.5D), percentileMillis(0.99D));
+    }
+}
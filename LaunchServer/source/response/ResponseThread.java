@@ -17,10 +17,12 @@ import launchserver.response.update.LauncherResponse;
 import launchserver.response.update.UpdateListResponse;
 import launchserver.response.update.UpdateResponse;
 
+import java.io.EOFException;
 import java.io.IOException;
 import java.math.BigInteger;
 import java.net.Socket;
 import java.net.SocketException;
+import java.net.SocketTimeoutException;
 
 public final class ResponseThread implements Runnable {
     private final LaunchServer server;
@@ -39,13 +41,13 @@ public final class ResponseThread implements Runnable {
     @Override
     public void run() {
         if (server.config.authLimit && !server.config.authLimitConfig.blockOnConnect) {
-            if (AuthLimiterIPConfig.Instance.getAllowIp().stream().noneMatch(s -> s.equals(ip)) && server.config.authLimitConfig.onlyAllowIp) {
+            if (!AuthLimiterIPConfig.Instance.isAllowed(ip) && server.config.authLimitConfig.onlyAllowIp) {
                 if (!server.serverSocketHandler.logConnections)
                     LogHelper.debug("Blocked connection from %s [Not found in Allow List]", ip);
                 return;
             }
 
-            if (AuthLimiterIPConfig.Instance.getBlockIp().stream().anyMatch(s -> s.equals(ip)) && server.config.authLimitConfig.useBlockIp) {
+            if (AuthLimiterIPConfig.Instance.isBlocked(ip) && server.config.authLimitConfig.useBlockIp) {
                 if (!server.serverSocketHandler.logConnections)
                     LogHelper.debug("Blocked connection from %s [Found in Block List]", ip);
                 return;
@@ -65,6 +67,12 @@ public final class ResponseThread implements Runnable {
                 return;
             }
 
+            // Persistent session, serve requests till client closes it
+            if (type == Type.SESSION) {
+                session(input, output);
+                return;
+            }
+
             // Start response
             try {
                 respond(type, input, output);
@@ -125,6 +133,40 @@ public final class ResponseThread implements Runnable {
         return type;
     }
 
+    private void session(HInput input, HOutput output) throws Throwable {
+        // Requests are served one by one in order, client may pipeline them but there's no multiplexing
+        LogHelper.subDebug("[%s] Session opened", ip);
+        while (true) {
+            int tag;
+            try {
+                socket.setSoTimeout(server.config.sessionIdleTimeout); // Idle session shouldn't hold worker thread for long
+                tag = input.readVarInt();
+            } catch (EOFException | SocketTimeoutException ignored) {
+                break; // Client closed or abandoned session
+            }
+            socket.setSoTimeout(IOHelper.SOCKET_TIMEOUT);
+
+            // Verify request type
+            Type type = Type.read(input);
+            if (!type.isSessionable() || !server.serverSocketHandler.onHandshake(ip, type)) {
+                throw new IOException(String.format("[%s] Request type not allowed in session: %s", ip, type.name()));
+            }
+
+            // Respond and write tag as end of frame
+            try {
+                respond(type, input, output);
+            } catch (RequestException e) {
+                LogHelper.subDebug(String.format("#%s Request error: %s", ip, e.getMessage()));
+                output.writeString(e.getMessage(), 0);
+                output.flush();
+                break; // Stream state is unknown, client will reconnect
+            }
+            output.writeVarInt(tag);
+            output.flush();
+        }
+        LogHelper.subDebug("[%s] Session closed", ip);
+    }
+
     private void respond(Type type, HInput input, HOutput output) throws Throwable {
         if (server.serverSocketHandler.logConnections) {
             LogHelper.info("Connection from %s: %s", ip, type.name());
@@ -151,7 +193,7 @@ public final class ResponseThread implements Runnable {
                 response = new LauncherResponse(server, ip, input, output);
                 break;
             case UPDATE:
-                response = new UpdateResponse(server, ip, input, output);
+                response = new UpdateResponse(server, ip, input, output, socket.getChannel());
                 break;
             case UPDATE_LIST:
                 response = new UpdateListResponse(server, ip, input, output);
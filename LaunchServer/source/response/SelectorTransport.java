@@ -0,0 +1,164 @@
+package launchserver.response;
+
+import launcher.helper.CommonHelper;
+import launcher.helper.IOHelper;
+import launcher.helper.JVMHelper;
+import launcher.helper.LogHelper;
+import launcher.helper.VerifyHelper;
+import launchserver.LaunchServer;
+
+import java.io.IOException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/*package*/ final class SelectorTransport implements AutoCloseable {
+    /*package*/ static final int IO_THREADS = VerifyHelper.verifyInt(
+            Integer.parseInt(System.getProperty("launcher.ioThreads",
+                    Integer.toString(Math.max(1, JVMHelper.RUNTIME.availableProcessors() / 2)))),
+            VerifyHelper.POSITIVE, "launcher.ioThreads can't be <= 0");
+    private static final long SELECT_TIMEOUT = 1000L;
+
+    // Instance
+    private final LaunchServer server;
+    private final ExecutorService workerPool;
+    private final IOThread[] ioThreads = new IOThread[IO_THREADS];
+    private final AtomicInteger nextThread = new AtomicInteger(0);
+
+    /*package*/ SelectorTransport(LaunchServer server, ExecutorService workerPool) throws IOException {
+        this.server = server;
+        this.workerPool = workerPool;
+        for (int i = 0; i < ioThreads.length; i++) {
+            ioThreads[i] = new IOThread(Selector.open());
+        }
+    }
+
+    @Override
+    public void close() {
+        for (IOThread ioThread : ioThreads) {
+            ioThread.close();
+        }
+    }
+
+    /*package*/ void start() {
+        for (int i = 0; i < ioThreads.length; i++) {
+            CommonHelper.newThread("Network IO Thread #" + i, true, ioThreads[i]).start();
+        }
+    }
+
+    /*package*/ void register(String ip, SocketChannel channel) throws IOException {
+        channel.configureBlocking(false);
+        ioThreads[Math.floorMod(nextThread.getAndIncrement(), ioThreads.length)].register(ip, channel);
+    }
+
+    private void dispatch(String ip, SocketChannel channel) {
+        try {
+            // Response code uses blocking streams, switch back before handing off
+            channel.configureBlocking(true);
+            workerPool.execute(new ResponseThread(server, ip, channel.socket()));
+        } catch (RejectedExecutionException ignored) {
+            LogHelper.subDebug("[%s] Rejected connection: worker queue is full", ip);
+            IOHelper.close(channel);
+        } catch (IOException e) {
+            LogHelper.error(e);
+            IOHelper.close(channel);
+        }
+    }
+
+    private static final class Pending {
+        private final String ip;
+        private final SocketChannel channel;
+        private final long deadline = System.currentTimeMillis() + IOHelper.SOCKET_TIMEOUT;
+
+        private Pending(String ip, SocketChannel channel) {
+            this.ip = ip;
+            this.channel = channel;
+        }
+    }
+
+    private final class IOThread implements Runnable {
+        private final Selector selector;
+        private final Queue<Pending> registerQueue = new ConcurrentLinkedQueue<>();
+        private volatile boolean closed;
+
+        private IOThread(Selector selector) {
+            this.selector = selector;
+        }
+
+        @Override
+        public void run() {
+            List<SelectionKey> ready = new ArrayList<>(64);
+            try {
+                while (!closed) {
+                    selector.select(SELECT_TIMEOUT);
+
+                    // Register channels accepted since last select
+                    for (Pending pending = registerQueue.poll(); pending != null; pending = registerQueue.poll()) {
+                        try {
+                            pending.channel.register(selector, SelectionKey.OP_READ, pending);
+                        } catch (IOException e) {
+                            IOHelper.close(pending.channel);
+                        }
+                    }
+
+                    // Collect channels which have sent their handshake
+                    Set<SelectionKey> selected = selector.selectedKeys();
+                    for (SelectionKey key : selected) {
+                        if (key.isValid() && key.isReadable()) {
+                            key.cancel();
+                            ready.add(key);
+                        }
+                    }
+                    selected.clear();
+
+                    // Drop idle connections the same way as SO_TIMEOUT would do
+                    long now = System.currentTimeMillis();
+                    for (SelectionKey key : selector.keys()) {
+                        Pending pending = (Pending) key.attachment();
+                        if (key.isValid() && pending.deadline < now) {
+                            key.cancel();
+                            IOHelper.close(pending.channel);
+                        }
+                    }
+                    if (ready.isEmpty()) {
+                        continue;
+                    }
+
+                    // Flush cancelled keys, otherwise channels can't be switched to blocking mode
+                    selector.selectNow();
+                    for (SelectionKey key : ready) {
+                        Pending pending = (Pending) key.attachment();
+                        dispatch(pending.ip, pending.channel);
+                    }
+                    ready.clear();
+                }
+            } catch (IOException e) {
+                LogHelper.error(e);
+            } finally {
+                // Close connections which are still waiting for handshake
+                for (SelectionKey key : selector.keys()) {
+                    IOHelper.close(key.channel());
+                }
+                for (Pending pending = registerQueue.poll(); pending != null; pending = registerQueue.poll()) {
+                    IOHelper.close(pending.channel);
+                }
+                IOHelper.close(selector);
+            }
+        }
+
+        private void register(String ip, SocketChannel channel) {
+            registerQueue.add(new Pending(ip, channel));
+            selector.wakeup();
+        }
+
+        private void close() {
+            closed = true;
+            selector.wakeup();
+        }
+    }
+}
@@ -15,21 +15,27 @@ import java.io.IOException;
 import java.net.InetAddress;
 import java.net.ServerSocket;
 import java.net.Socket;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
 import java.util.Map;
 import java.util.Objects;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.*;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
 
 public final class ServerSocketHandler implements Runnable, AutoCloseable {
     private static final ThreadFactory THREAD_FACTORY = r -> CommonHelper.newThread("Network Thread", true, r);
+    private static final int WORKER_THREADS = VerifyHelper.verifyInt(
+            Integer.parseInt(System.getProperty("launcher.workerThreads", Integer.toString(64))),
+            VerifyHelper.POSITIVE, "launcher.workerThreads can't be <= 0");
+    private static final int WORKER_QUEUE_SIZE = VerifyHelper.verifyInt(
+            Integer.parseInt(System.getProperty("launcher.workerQueueSize", Integer.toString(1024))),
+            VerifyHelper.POSITIVE, "launcher.workerQueueSize can't be <= 0");
     // Instance
     private final LaunchServer server;
     private final AtomicReference<ServerSocket> serverSocket = new AtomicReference<>();
     private final ExecutorService threadPool = Executors.newCachedThreadPool(THREAD_FACTORY);
+    private final AtomicReference<ExecutorService> workerPool = new AtomicReference<>(); // Selector transport only
     // API
     private final Map<String, Factory> customResponses = new ConcurrentHashMap<>(2);
     private final AtomicLong idCounter = new AtomicLong(0L);
@@ -52,12 +58,26 @@ public final class ServerSocketHandler implements Runnable, AutoCloseable {
                 LogHelper.error(e);
             }
         }
+
+        // Let in-flight responses finish, but don't take new ones
+        ExecutorService pool = workerPool.getAndSet(null);
+        if (pool != null) {
+            pool.shutdown();
+        }
     }
 
     @Override
     public void run() {
         LogHelper.info("Starting server socket thread");
-        try (ServerSocket serverSocket = new ServerSocket()) {
+        if (server.config.selectorTransport) {
+            runSelector();
+            return;
+        }
+
+        // Blocking transport, thread per connection
+        // Sockets are still accepted from channel to allow zero-copy file transfers
+        try (ServerSocketChannel serverChannel = ServerSocketChannel.open()) {
+            ServerSocket serverSocket = serverChannel.socket();
             if (!this.serverSocket.compareAndSet(null, serverSocket)) {
                 throw new IllegalStateException("Previous socket wasn't closed");
             }
@@ -91,6 +111,61 @@ public final class ServerSocketHandler implements Runnable, AutoCloseable {
         }
     }
 
+    private void runSelector() {
+        ExecutorService workerPool = newWorkerPool();
+        if (!this.workerPool.compareAndSet(null, workerPool)) {
+            workerPool.shutdown();
+            throw new IllegalStateException("Previous worker pool wasn't shut down");
+        }
+        try (ServerSocketChannel serverChannel = ServerSocketChannel.open();
+             SelectorTransport transport = new SelectorTransport(server, workerPool)) {
+            ServerSocket serverSocket = serverChannel.socket();
+            if (!this.serverSocket.compareAndSet(null, serverSocket)) {
+                throw new IllegalStateException("Previous socket wasn't closed");
+            }
+
+            // Set socket params
+            serverSocket.setReuseAddress(true);
+            serverSocket.setPerformancePreferences(1, 0, 2);
+            serverSocket.bind(server.config.getSocketAddress());
+            transport.start();
+            LogHelper.info("Server socket thread successfully started (selector transport, %d IO threads)",
+                    SelectorTransport.IO_THREADS);
+
+            // Listen for incoming connections
+            while (serverSocket.isBound()) {
+                SocketChannel channel = serverChannel.accept();
+                Socket socket = channel.socket();
+                String ip = IOHelper.getIP(socket.getRemoteSocketAddress());
+
+                // Invoke pre-connect listener
+                if (listener != null && !listener.onConnect(ip, socket.getInetAddress())) {
+                    IOHelper.close(channel);
+                    continue; // Listener didn't accepted this connection
+                }
+
+                // Wait for handshake without holding a thread
+                transport.register(ip, channel);
+            }
+        } catch (IOException e) {
+            // Ignore error after close/rebind
+            if (serverSocket.get() != null) {
+                LogHelper.error(e);
+            }
+        } finally {
+            if (this.workerPool.compareAndSet(workerPool, null)) {
+                workerPool.shutdown();
+            }
+        }
+    }
+
+    private static ExecutorService newWorkerPool() {
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(WORKER_THREADS, WORKER_THREADS, 60L, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(WORKER_QUEUE_SIZE), THREAD_FACTORY);
+        pool.allowCoreThreadTimeOut(true);
+        return pool;
+    }
+
     @LauncherAPI
     public Response newCustomResponse(String name, String ip, HInput input, HOutput output) {
         Factory factory = VerifyHelper.getMapValue_1(customResponses, name,
@@ -11,21 +11,18 @@ import launcher.serialize.signed.SignedObjectHolder;
 import launchserver.HackHandler;
 import launchserver.LaunchServer;
 import launchserver.auth.AuthException;
-import launchserver.auth.limiter.AuthLimiterHWIDConfig;
 import launchserver.auth.limiter.AuthLimiterIPConfig;
 import launchserver.auth.provider.AuthProvider;
 import launchserver.auth.provider.AuthProviderResult;
-import launchserver.helpers.ImmutableByteArray;
-import launchserver.helpers.Pair;
 import launchserver.response.Response;
 import launchserver.response.profile.ProfileByUUIDResponse;
+import launchserver.response.profile.ProfileCache;
 
 import javax.crypto.BadPaddingException;
 import javax.crypto.IllegalBlockSizeException;
 import java.sql.SQLException;
 import java.util.Arrays;
 import java.util.Collection;
-import java.util.Map;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
@@ -53,8 +50,7 @@ public final class AuthResponse extends Response {
         // Decrypt password
         String password;
         try {
-            password = IOHelper.decode(SecurityHelper.newRSADecryptCipher(server.privateKey).
-                    doFinal(encryptedPassword));
+            password = IOHelper.decode(SecurityHelper.decrypt(encryptedPassword, server.privateKey));
         } catch (IllegalBlockSizeException | BadPaddingException ignored) {
             requestError("Password decryption error");
             return;
@@ -66,12 +62,12 @@ public final class AuthResponse extends Response {
         try {
             // Лесенка чтоб ее
             if (server.config.authLimit) {
-                if (AuthLimiterIPConfig.Instance.getBlockIp().stream().anyMatch(s -> s.equals(ip)) && server.config.authLimitConfig.useBlockIp) {
+                if (AuthLimiterIPConfig.Instance.isBlocked(ip) && server.config.authLimitConfig.useBlockIp) {
                     AuthProvider.authError(server.config.authLimitConfig.authBannedString);
                     return;
                 }
 
-                if (AuthLimiterIPConfig.Instance.getAllowIp().stream().noneMatch(s -> s.equals(ip))) {
+                if (!AuthLimiterIPConfig.Instance.isAllowed(ip)) {
                     if (server.config.authLimitConfig.onlyAllowIp) {
                         AuthProvider.authError(server.config.authLimitConfig.authNotWhitelistString);
                         return;
@@ -122,6 +118,7 @@ public final class AuthResponse extends Response {
             return;
         }
         writeNoError(output);
+        ProfileCache.invalidate(uuid); // Relogin picks up new username case and skin
 
         // Write profile and UUID
         ProfileByUUIDResponse.getProfile(server, uuid, result.username).write(output);
@@ -141,18 +138,8 @@ public final class AuthResponse extends Response {
     }
 
     private void checkHWID(String nickname, byte[] hwid) throws AuthException {
-        ImmutableByteArray actualHWID = new ImmutableByteArray(hwid);
         try {
-            AuthLimiterHWIDConfig hwidHandler = server.config.hwidHandler;
-            Map<ImmutableByteArray, Boolean> knownHWID = hwidHandler.getHardware(nickname);
-            boolean needInsert = !knownHWID.containsKey(actualHWID);
-            boolean banned = knownHWID.values().stream().anyMatch(i -> i);
-            if (needInsert) {
-                Pair<Integer, Boolean> id_Banned = hwidHandler.getOrRegisterHWID(hwid, banned);
-                hwidHandler.addHardwareToUser(nickname, id_Banned.left);
-                banned = banned | id_Banned.right;
-            }
-            if (banned)
+            if (server.config.hwidHandler.checkHardware(nickname, hwid))
                 AuthProvider.authError(server.config.authLimitConfig.authBannedString);
         } catch (SQLException e) {
             e.printStackTrace();
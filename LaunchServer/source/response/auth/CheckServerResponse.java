@@ -8,7 +8,7 @@ import launcher.serialize.HOutput;
 import launchserver.LaunchServer;
 import launchserver.auth.AuthException;
 import launchserver.response.Response;
-import launchserver.response.profile.ProfileByUUIDResponse;
+import launchserver.response.profile.ProfileCache;
 
 import java.io.IOException;
 import java.util.UUID;
@@ -41,7 +41,7 @@ public final class CheckServerResponse extends Response {
         // Write profile and UUID
         output.writeBoolean(uuid != null);
         if (uuid != null) {
-            ProfileByUUIDResponse.getProfile(server, uuid, username).write(output);
+            ProfileCache.writeProfile(server, output, uuid, username);
         }
     }
 }
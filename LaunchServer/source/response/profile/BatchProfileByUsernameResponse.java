@@ -9,6 +9,7 @@ import launchserver.response.Response;
 
 import java.io.IOException;
 import java.util.Arrays;
+import java.util.UUID;
 
 public final class BatchProfileByUsernameResponse extends Response {
     public BatchProfileByUsernameResponse(LaunchServer server, String ip, HInput input, HOutput output) {
@@ -23,9 +24,8 @@ public final class BatchProfileByUsernameResponse extends Response {
         }
         debug("Usernames: " + Arrays.toString(usernames));
 
-        // Respond with profiles array
-        for (String username : usernames) {
-            ProfileByUsernameResponse.writeProfile(server, output, username);
-        }
+        // Resolve all UUIDs at once, then textures concurrently
+        UUID[] uuids = server.config.authHandler.usernamesToUUIDs(usernames);
+        ProfileCache.writeProfiles(server, output, uuids, usernames);
     }
 }
@@ -2,7 +2,9 @@ package launchserver.response.profile;
 
 import launcher.client.PlayerProfile;
 import launcher.client.PlayerProfile.Texture;
+import launcher.helper.CommonHelper;
 import launcher.helper.LogHelper;
+import launcher.helper.VerifyHelper;
 import launcher.serialize.HInput;
 import launcher.serialize.HOutput;
 import launchserver.LaunchServer;
@@ -10,33 +12,74 @@ import launchserver.response.Response;
 
 import java.io.IOException;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 public final class ProfileByUUIDResponse extends Response {
+    private static final int TEXTURE_THREADS = VerifyHelper.verifyInt(
+            Integer.parseInt(System.getProperty("launcher.textureThreads", Integer.toString(16))),
+            VerifyHelper.POSITIVE, "launcher.textureThreads can't be <= 0");
+    private static final ThreadPoolExecutor TEXTURE_EXECUTOR = new ThreadPoolExecutor(TEXTURE_THREADS, TEXTURE_THREADS,
+            60L, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), r -> CommonHelper.newThread("Texture Lookup Thread", true, r));
+
+    static {
+        TEXTURE_EXECUTOR.allowCoreThreadTimeOut(true);
+    }
+
     public ProfileByUUIDResponse(LaunchServer server, String ip, HInput input, HOutput output) {
         super(server, ip, input, output);
     }
 
     public static PlayerProfile getProfile(LaunchServer server, UUID uuid, String username) {
-        // Get skin texture
-        Texture skin;
+        return new PlayerProfile(uuid, username, getSkin(server, uuid, username), getCloak(server, uuid, username));
+    }
+
+    // Null profile for null UUID, all texture lookups run concurrently
+    public static PlayerProfile[] getProfiles(LaunchServer server, UUID[] uuids, String[] usernames) {
+        Texture[] skins = new Texture[uuids.length];
+        Texture[] cloaks = new Texture[uuids.length];
+        CompletableFuture<?>[] futures = new CompletableFuture<?>[uuids.length * 2];
+        for (int i = 0; i < uuids.length; i++) {
+            int index = i;
+            if (uuids[i] == null) {
+                futures[i * 2] = futures[i * 2 + 1] = CompletableFuture.completedFuture(null);
+                continue;
+            }
+            futures[i * 2] = CompletableFuture.runAsync(() -> skins[index] = getSkin(server, uuids[index], usernames[index]), TEXTURE_EXECUTOR);
+            futures[i * 2 + 1] = CompletableFuture.runAsync(() -> cloaks[index] = getCloak(server, uuids[index], usernames[index]), TEXTURE_EXECUTOR);
+        }
+        CompletableFuture.allOf(futures).join();
+
+        // Combine profiles
+        PlayerProfile[] profiles = new PlayerProfile[uuids.length];
+        for (int i = 0; i < uuids.length; i++) {
+            if (uuids[i] != null) {
+                profiles[i] = new PlayerProfile(uuids[i], usernames[i], skins[i], cloaks[i]);
+            }
+        }
+        return profiles;
+    }
+
+    private static Texture getSkin(LaunchServer server, UUID uuid, String username) {
         try {
-            skin = server.config.textureProvider.getSkinTexture(uuid, username);
+            return server.config.textureProvider.getSkinTexture(uuid, username);
         } catch (Throwable exc) {
             LogHelper.error(new IOException(String.format("Can't get skin texture: '%s'", username), exc));
-            skin = null;
+            ProfileCache.invalidate(uuid); // Don't cache profile without texture
+            return null;
         }
+    }
 
-        // Get cloak texture
-        Texture cloak;
+    private static Texture getCloak(LaunchServer server, UUID uuid, String username) {
         try {
-            cloak = server.config.textureProvider.getCloakTexture(uuid, username);
+            return server.config.textureProvider.getCloakTexture(uuid, username);
         } catch (Throwable exc) {
             LogHelper.error(new IOException(String.format("Can't get cloak texture: '%s'", username), exc));
-            cloak = null;
+            ProfileCache.invalidate(uuid); // Don't cache profile without texture
+            return null;
         }
-
-        // Return combined profile
-        return new PlayerProfile(uuid, username, skin, cloak);
     }
 
     @Override
@@ -53,6 +96,6 @@ public final class ProfileByUUIDResponse extends Response {
 
         // Write profile
         output.writeBoolean(true);
-        getProfile(server, uuid, username).write(output);
+        ProfileCache.writeProfile(server, output, uuid, username);
     }
 }
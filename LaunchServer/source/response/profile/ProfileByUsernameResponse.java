@@ -23,7 +23,7 @@ public final class ProfileByUsernameResponse extends Response {
 
         // Write profile
         output.writeBoolean(true);
-        ProfileByUUIDResponse.getProfile(server, uuid, username).write(output);
+        ProfileCache.writeProfile(server, output, uuid, username);
     }
 
     @Override
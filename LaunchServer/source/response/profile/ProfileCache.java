@@ -0,0 +1,135 @@
+package launchserver.response.profile;
+
+import launcher.LauncherAPI;
+import launcher.client.PlayerProfile;
+import launcher.helper.VerifyHelper;
+import launcher.serialize.HOutput;
+import launchserver.LaunchServer;
+import launchserver.helpers.BoundedCache;
+
+import java.io.IOException;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Serialized profiles of hot players. Username is part of profile, so cached blob is used only for same username
+public final class ProfileCache {
+    @LauncherAPI
+    public static final long TTL = VerifyHelper.verifyLong(
+            Long.parseLong(System.getProperty("launcher.profileCacheTTL", Integer.toString(30))),
+            VerifyHelper.L_NOT_NEGATIVE, "launcher.profileCacheTTL can't be < 0") * 1000L;
+    @LauncherAPI
+    public static final int SIZE = VerifyHelper.verifyInt(
+            Integer.parseInt(System.getProperty("launcher.profileCacheSize", Integer.toString(16384))),
+            VerifyHelper.POSITIVE, "launcher.profileCacheSize can't be <= 0");
+    private static final BoundedCache<UUID, Blob> CACHE = TTL == 0L ? null : new BoundedCache<>(SIZE, TTL, 0L);
+
+    // Versions striped by UUID, bumped on invalidation so profile built before it isn't cached after it
+    private static final int VERSION_STRIPES = 1024;
+    private static final AtomicLongArray VERSIONS = new AtomicLongArray(VERSION_STRIPES);
+
+    private ProfileCache() {
+    }
+
+    @LauncherAPI
+    public static void writeProfile(LaunchServer server, HOutput output, UUID uuid, String username) throws IOException {
+        Blob blob = CACHE == null ? null : CACHE.get(uuid);
+        if (blob == null || !blob.username.equals(username)) {
+            long version = version(uuid);
+            blob = new Blob(username, ProfileByUUIDResponse.getProfile(server, uuid, username).write());
+            put(uuid, blob, version);
+        }
+        output.stream.write(blob.bytes);
+    }
+
+    @LauncherAPI
+    public static void writeProfiles(LaunchServer server, HOutput output, UUID[] uuids, String[] usernames) throws IOException {
+        byte[][] bytes = new byte[uuids.length][];
+        UUID[] misses = new UUID[uuids.length];
+        long[] versions = new long[uuids.length];
+        boolean hasMisses = false;
+        for (int i = 0; i < uuids.length; i++) {
+            Blob blob = uuids[i] == null || CACHE == null ? null : CACHE.get(uuids[i]);
+            if (blob != null && blob.username.equals(usernames[i])) {
+                bytes[i] = blob.bytes;
+            } else {
+                misses[i] = uuids[i];
+                if (uuids[i] != null) {
+                    versions[i] = version(uuids[i]);
+                    hasMisses = true;
+                }
+            }
+        }
+
+        // Build all missing profiles at once
+        if (hasMisses) {
+            PlayerProfile[] profiles = ProfileByUUIDResponse.getProfiles(server, misses, usernames);
+            for (int i = 0; i < profiles.length; i++) {
+                if (profiles[i] != null) {
+                    bytes[i] = profiles[i].write();
+                    put(uuids[i], new Blob(usernames[i], bytes[i]), versions[i]);
+                }
+            }
+        }
+
+        // Write profiles array
+        for (byte[] profile : bytes) {
+            output.writeBoolean(profile != null);
+            if (profile != null) {
+                output.stream.write(profile);
+            }
+        }
+    }
+
+    @LauncherAPI
+    public static void invalidate(UUID uuid) {
+        VERSIONS.incrementAndGet(stripe(uuid));
+        if (CACHE != null) {
+            CACHE.invalidate(uuid);
+        }
+    }
+
+    @LauncherAPI
+    public static void invalidateAll() {
+        for (int i = 0; i < VERSION_STRIPES; i++) {
+            VERSIONS.incrementAndGet(i);
+        }
+        if (CACHE != null) {
+            CACHE.invalidateAll();
+        }
+    }
+
+    @LauncherAPI
+    public static String getStats() {
+        return CACHE == null ? "disabled" : CACHE.toString();
+    }
+
+    private static void put(UUID uuid, Blob blob, long version) {
+        if (CACHE != null && version(uuid) == version) {
+            CACHE.put(uuid, blob);
+
+            // Invalidated while putting, don't keep stale blob
+            if (version(uuid) != version) {
+                CACHE.remove(uuid, blob);
+            }
+        }
+    }
+
+    private static long version(UUID uuid) {
+        return VERSIONS.get(stripe(uuid));
+    }
+
+    private static int stripe(UUID uuid) {
+        int hash = uuid.hashCode();
+        return (hash ^ hash >>> 16) & VERSION_STRIPES - 1;
+    }
+
+    private static final class Blob {
+        private final String username;
+        private final byte[] bytes;
+
+        private Blob(String username, byte[] bytes) {
+            this.username = username;
+            this.bytes = bytes;
+        }
+    }
+}
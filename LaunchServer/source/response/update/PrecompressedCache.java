@@ -0,0 +1,224 @@
+package launchserver.response.update;
+
+import launcher.LauncherAPI;
+import launcher.hasher.HashedDir;
+import launcher.hasher.HashedEntry;
+import launcher.hasher.HashedFile;
+import launcher.helper.CommonHelper;
+import launcher.helper.IOHelper;
+import launcher.helper.LogHelper;
+import launcher.helper.SecurityHelper;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.util.*;
+import java.util.Map.Entry;
+import java.util.zip.Deflater;
+
+public final class PrecompressedCache {
+    // Segments end with SYNC_FLUSH and have fresh dictionary, so they're concatenated into one deflate stream
+    private static final String DEFLATE_EXTENSION = "deflate";
+    private static final String STORED_EXTENSION = "stored";
+    private static final Set<String> INCOMPRESSIBLE_EXTENSIONS = new HashSet<>(Arrays.asList(
+            "jar", "zip", "png", "jpg", "jpeg", "ogg", "mp3", "gz", "xz", "bz2", "7z", "lzma", "pack"));
+    private static final double MAX_RATIO = 0.95D; // Store as-is if deflate saves less than 5%
+    private static final int MAX_STORED_BLOCK = 0xFFFF;
+    private static final byte[] FINAL_BLOCK = {0x01, 0x00, 0x00, (byte) 0xFF, (byte) 0xFF};
+    private static final ThreadLocal<byte[]> DEFLATE_BUFFER = ThreadLocal.withInitial(IOHelper::newBuffer);
+
+    // Instance
+    private final Path dir;
+
+    @LauncherAPI
+    public PrecompressedCache(Path dir) {
+        this.dir = dir;
+    }
+
+    @LauncherAPI
+    public static boolean isIncompressible(String fileName) {
+        int dot = fileName.lastIndexOf('.');
+        return dot >= 0 && INCOMPRESSIBLE_EXTENSIONS.contains(CommonHelper.low(fileName.substring(dot + 1)));
+    }
+
+    @LauncherAPI
+    public static void writeStored(byte[] bytes, int offset, int length, OutputStream output) throws IOException {
+        while (length > 0) {
+            int blockLength = Math.min(length, MAX_STORED_BLOCK);
+            output.write(0x00); // Not final, stored
+            output.write(blockLength & 0xFF);
+            output.write(blockLength >>> 8 & 0xFF);
+            output.write(~blockLength & 0xFF);
+            output.write(~blockLength >>> 8 & 0xFF);
+            output.write(bytes, offset, blockLength);
+            offset += blockLength;
+            length -= blockLength;
+        }
+    }
+
+    @LauncherAPI
+    public static void writeFinal(OutputStream output) throws IOException {
+        output.write(FINAL_BLOCK);
+    }
+
+    private static void deflate(InputStream input, OutputStream output, Deflater deflater, byte[] buffer) throws IOException {
+        byte[] deflateBuffer = DEFLATE_BUFFER.get();
+        for (int length = input.read(buffer); length >= 0; length = input.read(buffer)) {
+            deflater.setInput(buffer, 0, length);
+            while (!deflater.needsInput()) {
+                output.write(deflateBuffer, 0, deflater.deflate(deflateBuffer, 0, deflateBuffer.length, Deflater.NO_FLUSH));
+            }
+        }
+
+        // Byte-align segment end, keep stream open for next segment
+        int length;
+        do {
+            length = deflater.deflate(deflateBuffer, 0, deflateBuffer.length, Deflater.SYNC_FLUSH);
+            output.write(deflateBuffer, 0, length);
+        } while (length == deflateBuffer.length);
+    }
+
+    private static void store(InputStream input, OutputStream output, byte[] buffer) throws IOException {
+        for (int length = input.read(buffer); length >= 0; length = input.read(buffer)) {
+            writeStored(buffer, 0, length, output);
+        }
+    }
+
+    @LauncherAPI
+    public void sync(Path updateDir, HashedDir hdir) throws IOException {
+        Files.createDirectories(dir);
+        Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION, true);
+        try {
+            sync(updateDir, hdir, deflater, IOHelper.newBuffer());
+        } finally {
+            deflater.end();
+        }
+    }
+
+    @LauncherAPI
+    public void retain(Collection<HashedDir> hdirs) throws IOException {
+        if (!IOHelper.isDir(dir)) {
+            return;
+        }
+
+        // Collect keys of all known files
+        Set<String> keys = new HashSet<>(1024);
+        for (HashedDir hdir : hdirs) {
+            collectKeys(hdir, keys);
+        }
+
+        // Delete unused segments
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir)) {
+            for (Path file : stream) {
+                String fileName = IOHelper.getFileName(file);
+                int dot = fileName.lastIndexOf('.');
+                if (dot < 0 || !keys.contains(fileName.substring(0, dot))) {
+                    Files.deleteIfExists(file);
+                }
+            }
+        }
+    }
+
+    @LauncherAPI
+    public void write(Path file, HashedFile hFile, OutputStream output, Deflater deflater, byte[] buffer) throws IOException {
+        String key = toKey(hFile);
+        if (key != null) {
+            Path cached = dir.resolve(key + '.' + DEFLATE_EXTENSION);
+            if (IOHelper.isFile(cached)) {
+                try (InputStream input = IOHelper.newInput(cached)) {
+                    for (int length = input.read(buffer); length >= 0; length = input.read(buffer)) {
+                        output.write(buffer, 0, length);
+                    }
+                }
+                return;
+            }
+        }
+
+        // Not cached, store or deflate right now
+        try (InputStream input = IOHelper.newInput(file)) {
+            if (isIncompressible(IOHelper.getFileName(file)) ||
+                    key != null && IOHelper.isFile(dir.resolve(key + '.' + STORED_EXTENSION))) {
+                store(input, output, buffer);
+                return;
+            }
+            deflater.reset();
+            deflate(input, output, deflater, buffer);
+        }
+    }
+
+    private void sync(Path dir, HashedDir hdir, Deflater deflater, byte[] buffer) throws IOException {
+        for (Entry<String, HashedEntry> mapEntry : hdir.map().entrySet()) {
+            String name = mapEntry.getKey();
+            HashedEntry entry = mapEntry.getValue();
+            switch (entry.getType()) {
+                case DIR:
+                    sync(dir.resolve(name), (HashedDir) entry, deflater, buffer);
+                    break;
+                case FILE:
+                    String key = toKey((HashedFile) entry);
+                    if (key != null && entry.size() > 0 && !isIncompressible(name)) {
+                        syncFile(dir.resolve(name), (HashedFile) entry, key, deflater, buffer);
+                    }
+                    break;
+                default:
+                    throw new AssertionError("Unsupported hashed entry type: " + entry.getType().name());
+            }
+        }
+    }
+
+    private void syncFile(Path file, HashedFile hFile, String key, Deflater deflater, byte[] buffer) throws IOException {
+        Path deflated = this.dir.resolve(key + '.' + DEFLATE_EXTENSION);
+        Path stored = this.dir.resolve(key + '.' + STORED_EXTENSION);
+        if (IOHelper.isFile(deflated) || IOHelper.isFile(stored)) {
+            return; // Already cached
+        }
+
+        // Deflate to temp file, then move it atomically
+        Path temp = this.dir.resolve(key + ".tmp");
+        MessageDigest digest = SecurityHelper.newDigest(HashedFile.DIGEST_ALGO);
+        deflater.reset();
+        try (InputStream input = new DigestInputStream(IOHelper.newInput(file), digest);
+             OutputStream output = IOHelper.newOutput(temp)) {
+            deflate(input, output, deflater, buffer);
+        }
+
+        // File was changed after hashing, cached segment would not match its key
+        if (!Arrays.equals(digest.digest(), hFile.getDigest())) {
+            LogHelper.subWarning("Update file was changed while syncing: '%s'", file);
+            Files.delete(temp);
+            return;
+        }
+
+        // Don't waste time on incompressible data
+        if (Files.size(temp) >= hFile.size() * MAX_RATIO) {
+            LogHelper.subDebug("Incompressible update file: '%s'", file);
+            Files.delete(temp);
+            IOHelper.write(stored, new byte[0]);
+            return;
+        }
+        IOHelper.move(temp, deflated);
+    }
+
+    private static void collectKeys(HashedDir hdir, Set<String> keys) {
+        for (HashedEntry entry : hdir.map().values()) {
+            if (entry.getType() == HashedEntry.Type.DIR) {
+                collectKeys((HashedDir) entry, keys);
+                continue;
+            }
+            String key = toKey((HashedFile) entry);
+            if (key != null) {
+                keys.add(key);
+            }
+        }
+    }
+
+    private static String toKey(HashedFile hFile) {
+        byte[] digest = hFile.getDigest();
+        return digest == null ? null : SecurityHelper.toHex(digest);
+    }
+}
@@ -2,6 +2,7 @@ package launchserver.response.update;
 
 import launcher.hasher.HashedDir;
 import launcher.hasher.HashedEntry;
+import launcher.hasher.HashedFile;
 import launcher.hasher.HashedEntry.Type;
 import launcher.helper.IOHelper;
 import launcher.request.update.UpdateRequest;
@@ -15,14 +16,50 @@ import launchserver.response.Response;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.channels.SocketChannel;
 import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.util.Deque;
 import java.util.LinkedList;
-import java.util.zip.DeflaterOutputStream;
+import java.util.zip.Deflater;
 
 public final class UpdateResponse extends Response {
+    private static final int TRANSFER_BUFFER_SIZE = 0x10000;
+    private static final ThreadLocal<byte[]> TRANSFER_BUFFER = ThreadLocal.withInitial(() -> new byte[TRANSFER_BUFFER_SIZE]);
+
+    // Instance
+    private final SocketChannel channel;
+
     public UpdateResponse(LaunchServer server, String ip, HInput input, HOutput output) {
+        this(server, ip, input, output, null);
+    }
+
+    public UpdateResponse(LaunchServer server, String ip, HInput input, HOutput output, SocketChannel channel) {
         super(server, ip, input, output);
+        this.channel = channel;
+    }
+
+    private static void transfer(Path file, long size, SocketChannel target) throws IOException {
+        try (FileChannel fileChannel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long position = 0L;
+            while (position < size) {
+                long transferred = fileChannel.transferTo(position, size - position, target);
+                if (transferred == 0L && position >= fileChannel.size()) {
+                    throw new IOException(String.format("File was truncated: '%s'", file));
+                }
+                position += transferred;
+            }
+        }
+    }
+
+    private static void transfer(Path file, OutputStream output) throws IOException {
+        byte[] buffer = TRANSFER_BUFFER.get();
+        try (InputStream fileInput = IOHelper.newInput(file)) {
+            for (int length = fileInput.read(buffer); length >= 0; length = fileInput.read(buffer)) {
+                output.write(buffer, 0, length);
+            }
+        }
     }
 
     @Override
@@ -44,12 +81,25 @@ public final class UpdateResponse extends Response {
 
         // Prepare variables for actions queue
         Path dir = server.updatesDir.resolve(updateDirName);
-        Deque<HashedDir> dirStack = new LinkedList<>();
-        dirStack.add(hdir.object);
 
         // Perform update
-        // noinspection IOResourceOpenedButNotSafelyClosed
-        OutputStream fileOutput = server.config.compress ? new DeflaterOutputStream(output.stream, IOHelper.newDeflater(), IOHelper.BUFFER_SIZE, true) : output.stream;
+        Deflater deflater = server.config.compress ? IOHelper.newDeflater() : null;
+        try {
+            perform(hdir.object, dir, deflater);
+        } finally {
+            if (deflater != null) {
+                deflater.end(); // Free native memory now, not on finalization
+            }
+        }
+    }
+
+    private void perform(HashedDir root, Path dir, Deflater deflater) throws IOException {
+        OutputStream fileOutput = output.stream;
+        boolean zeroCopy = deflater == null && channel != null;
+        Deque<HashedDir> dirStack = new LinkedList<>();
+        dirStack.add(root);
+
+        // Perform actions queue
         Action[] actionsSlice = new Action[UpdateRequest.MAX_QUEUE_SIZE];
         loop:
         while (true) {
@@ -87,14 +137,20 @@ public final class UpdateResponse extends Response {
 
                         // Resolve and write file
                         Path file = dir.resolve(action.name);
-                        if (IOHelper.readAttributes(file).size() != hFile.size()) {
-                            fileOutput.write(0x0);
+                        long size = IOHelper.readAttributes(file).size();
+                        if (size != hFile.size()) {
+                            writeMarker(deflater, 0x0);
                             fileOutput.flush();
                             throw new IOException("Unknown hashed file: " + action.name);
                         }
-                        fileOutput.write(0xFF);
-                        try (InputStream fileInput = IOHelper.newInput(file)) {
-                            IOHelper.transfer(fileInput, fileOutput);
+                        writeMarker(deflater, 0xFF);
+                        if (deflater != null) { // Precompressed or stored deflate segments
+                            server.compressedCache.write(file, (HashedFile) hFile, fileOutput, deflater, TRANSFER_BUFFER.get());
+                        } else if (zeroCopy) { // Kernel copies file to socket (sendfile)
+                            fileOutput.flush();
+                            transfer(file, size, channel);
+                        } else {
+                            transfer(file, fileOutput);
                         }
                         break;
                     case CD_BACK:
@@ -121,8 +177,20 @@ public final class UpdateResponse extends Response {
         }
 
         // So we've updated :)
-        if (fileOutput instanceof DeflaterOutputStream) {
-            ((DeflaterOutputStream) fileOutput).finish();
+        if (deflater != null) {
+            PrecompressedCache.writeFinal(fileOutput);
+            fileOutput.flush();
+        }
+    }
+
+    private void writeMarker(Deflater deflater, int marker) throws IOException {
+        if (deflater == null) {
+            output.stream.write(marker);
+            return;
         }
+
+        // Marker is a part of deflate stream
+        byte[] bytes = {(byte) marker};
+        PrecompressedCache.writeStored(bytes, 0, bytes.length, output.stream);
     }
 }
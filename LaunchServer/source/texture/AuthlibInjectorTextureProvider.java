@@ -21,12 +21,12 @@ public class AuthlibInjectorTextureProvider extends TextureProvider {
     }
 
     @Override
-    public synchronized Texture getSkinTexture(UUID uuid, String username) {
+    public Texture getSkinTexture(UUID uuid, String username) {
         return cacheTextureProvider.getCached(uuid, username, urlApiInjector + "/sessionserver/session/minecraft/profile/", "Authlib-Injector").skin;
     }
 
     @Override
-    public synchronized Texture getCloakTexture(UUID uuid, String username) {
+    public Texture getCloakTexture(UUID uuid, String username) {
         return cacheTextureProvider.getCached(uuid, username, urlApiInjector + "/sessionserver/session/minecraft/profile/", "Authlib-Injector").cloak;
     }
 }
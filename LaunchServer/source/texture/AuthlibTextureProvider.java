@@ -22,12 +22,12 @@ public class AuthlibTextureProvider extends TextureProvider {
     }
 
     @Override
-    public synchronized Texture getSkinTexture(UUID uuid, String username) {
+    public Texture getSkinTexture(UUID uuid, String username) {
         return cacheTextureProvider.getCached(uuid, username, setProfileURL, "Authlib").skin;
     }
 
     @Override
-    public synchronized Texture getCloakTexture(UUID uuid, String username) {
+    public Texture getCloakTexture(UUID uuid, String username) {
         return cacheTextureProvider.getCached(uuid, username, setProfileURL, "Authlib").cloak;
     }
 }
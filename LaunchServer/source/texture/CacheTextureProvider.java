@@ -6,42 +6,131 @@ import com.eclipsesource.json.JsonObject;
 import com.eclipsesource.json.JsonValue;
 import launcher.LauncherAPI;
 import launcher.client.PlayerProfile.Texture;
+import launcher.helper.CommonHelper;
 import launcher.helper.IOHelper;
 import launcher.helper.JVMHelper;
 import launcher.helper.LogHelper;
 import launcher.helper.VerifyHelper;
+import launchserver.helpers.BoundedCache;
 import launchserver.helpers.HTTPRequestHelper;
 
 import java.net.URL;
 import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
 import java.util.Base64;
-import java.util.HashMap;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.*;
 
 public class CacheTextureProvider {
     @LauncherAPI
     public static final long CACHE_DURATION_MS = VerifyHelper.verifyLong(
             Long.parseLong(System.getProperty("launcher.mysql.cacheDurationHours", Integer.toString(24))),
             VerifyHelper.L_NOT_NEGATIVE, "launcher.mysql.cacheDurationHours can't be < 0") * 60L * 60L * 1000L;
+    @LauncherAPI
+    public static final long ERROR_CACHE_DURATION_MS = VerifyHelper.verifyLong(
+            Long.parseLong(System.getProperty("launcher.textureErrorCacheSeconds", Integer.toString(10))),
+            VerifyHelper.L_NOT_NEGATIVE, "launcher.textureErrorCacheSeconds can't be < 0") * 1000L;
+    @LauncherAPI
+    public static final int CACHE_SIZE = VerifyHelper.verifyInt(
+            Integer.parseInt(System.getProperty("launcher.textureCacheSize", Integer.toString(65536))),
+            VerifyHelper.POSITIVE, "launcher.textureCacheSize can't be <= 0");
+    @LauncherAPI
+    public static final long CACHE_BYTES = VerifyHelper.verifyLong(
+            Long.parseLong(System.getProperty("launcher.textureCacheBytes", Long.toString(32L << 20))),
+            VerifyHelper.L_POSITIVE, "launcher.textureCacheBytes can't be <= 0");
+    private static final long REFRESH_AHEAD_MS = CACHE_DURATION_MS / 10; // Refresh last 10% of TTL in background
+    private static final ThreadPoolExecutor REFRESH_EXECUTOR = new ThreadPoolExecutor(2, 2, 60L, TimeUnit.SECONDS,
+            new LinkedBlockingQueue<>(1024), r -> CommonHelper.newThread("Texture Refresh Thread", true, r));
+
+    static {
+        REFRESH_EXECUTOR.allowCoreThreadTimeOut(true);
+    }
 
     // Instance
-    private final Map<String, CacheDataTexture> cache = new HashMap<>(1024);
+    private final BoundedCache<UUID, CacheDataTexture> cache = new BoundedCache<>(CACHE_SIZE, CACHE_BYTES,
+            CacheTextureProvider::weigh, 0, 0);
+    private final Map<UUID, CompletableFuture<CacheDataTexture>> loading = new ConcurrentHashMap<>(16);
 
     // Since November 2020, Mojang stopped supporting the timestamp parameter.
     // If a timestamp is provided, it is silently ignored and the current uuid is returned. Please remind them to fix this here:
     // https://bugs.mojang.com/browse/WEB-3367
     protected CacheDataTexture getCached(UUID uuid, String username, String in_profileURL, String serviceName) {
         CacheDataTexture result = cache.get(uuid);
+        long now = System.currentTimeMillis();
+        if (result == null || now >= result.until) {
+            result = load(uuid, username, in_profileURL, serviceName);
+        } else if (result.exc == null && now >= result.until - REFRESH_AHEAD_MS) {
+            // Still valid, but refresh it before expiry so lookups don't wait for Mojang
+            CompletableFuture<CacheDataTexture> future = new CompletableFuture<>();
+            if (loading.putIfAbsent(uuid, future) == null) {
+                CacheDataTexture cached = result;
+                try {
+                    REFRESH_EXECUTOR.execute(() -> refresh(uuid, username, in_profileURL, serviceName, future));
+                } catch (RejectedExecutionException ignored) {
+                    // Will be fetched on expiry
+                    future.complete(cached);
+                    loading.remove(uuid, future);
+                }
+            }
+        }
 
-        // Have cached result?
-        if (result != null && System.currentTimeMillis() < result.until) {
-            if (result.exc != null) {
-                JVMHelper.UNSAFE.throwException(result.exc);
+        // Have cached exception?
+        if (result.exc != null) {
+            JVMHelper.UNSAFE.throwException(result.exc);
+        }
+        return result;
+    }
+
+    private CacheDataTexture load(UUID uuid, String username, String in_profileURL, String serviceName) {
+        CompletableFuture<CacheDataTexture> future = new CompletableFuture<>();
+        CompletableFuture<CacheDataTexture> loadingFuture = loading.putIfAbsent(uuid, future);
+        if (loadingFuture != null) {
+            return loadingFuture.join(); // Someone is already fetching same profile
+        }
+        return load(uuid, username, in_profileURL, serviceName, future, false);
+    }
+
+    private void refresh(UUID uuid, String username, String in_profileURL, String serviceName, CompletableFuture<CacheDataTexture> future) {
+        try {
+            // Entry may have been renewed while task was queued
+            CacheDataTexture cached = cache.get(uuid);
+            if (cached != null && cached.exc == null && System.currentTimeMillis() < cached.until - REFRESH_AHEAD_MS) {
+                future.complete(cached);
+                loading.remove(uuid, future);
+                return;
             }
+            load(uuid, username, in_profileURL, serviceName, future, true);
+        } catch (Throwable exc) {
+            LogHelper.subDebug("Texture refresh failed: %s", exc);
+        }
+    }
+
+    // Caller owns loading slot for this future
+    private CacheDataTexture load(UUID uuid, String username, String in_profileURL, String serviceName,
+                                  CompletableFuture<CacheDataTexture> future, boolean refresh) {
+        // Fetch profile and wake up waiting threads
+        try {
+            CacheDataTexture result = fetch(uuid, username, in_profileURL, serviceName);
+            CacheDataTexture previous = cache.get(uuid);
+            if (result.until != Long.MIN_VALUE && (result.exc == null || !refresh)) {
+                cache.put(uuid, result); // Failed refresh keeps previous result until it expires
+            }
+            if (previous != null && result.exc == null && (previous.exc != null ||
+                    !isSame(previous.skin, result.skin) || !isSame(previous.cloak, result.cloak))) {
+                TextureProvider.onTextureChanged(uuid); // Skin or cloak was changed
+            }
+            future.complete(result);
             return result;
+        } catch (RuntimeException | Error exc) {
+            future.completeExceptionally(exc); // Don't leave waiting threads blocked
+            throw exc;
+        } finally {
+            loading.remove(uuid, future);
         }
+    }
 
+    private static CacheDataTexture fetch(UUID uuid, String username, String in_profileURL, String serviceName) {
         try {
             // Obtain player profile
             URL profileURL = new URL(in_profileURL + IOHelper.urlEncode(serviceName.equals("ElyBy") ? username : uuid.toString())); // Как я это не хотел делать...
@@ -52,7 +141,7 @@ public class CacheTextureProvider {
             JsonArray properties = (JsonArray) profileResponse.get("properties");
             if (properties == null) {
                 LogHelper.subDebug("No properties");
-                return cache(username, null, null, null);
+                return newData(null, null, null);
             }
 
             // Find textures property
@@ -68,7 +157,7 @@ public class CacheTextureProvider {
             }
             if (texturesProperty == null) {
                 LogHelper.subDebug("No textures property");
-                return cache(username, null, null, null);
+                return newData(null, null, null);
             }
 
             // Extract skin&cloak texture
@@ -79,22 +168,29 @@ public class CacheTextureProvider {
             Texture cloakTexture = cloakProperty == null ? null : new Texture(cloakProperty.get("url").asString(), true);
 
             // We're done
-            return cache(username, skinTexture, cloakTexture, null);
+            return newData(skinTexture, cloakTexture, null);
         } catch (Throwable exc) {
-            cache(username, null, null, exc);
-            JVMHelper.UNSAFE.throwException(exc);
+            return newData(null, null, exc);
         }
+    }
 
-        // We're dones
-        return result;
+    private static CacheDataTexture newData(Texture skin, Texture cloak, Throwable exc) {
+        // Errors are cached only briefly, so single upstream failure doesn't break skins for a day
+        long duration = exc == null ? CACHE_DURATION_MS : Math.min(ERROR_CACHE_DURATION_MS, CACHE_DURATION_MS);
+        long until = duration == 0L ? Long.MIN_VALUE : System.currentTimeMillis() + duration;
+        return exc == null ? new CacheDataTexture(skin, cloak, until) : new CacheDataTexture(exc, until);
     }
 
-    private CacheDataTexture cache(String username, Texture skin, Texture cloak, Throwable exc) {
-        long until = CACHE_DURATION_MS == 0L ? Long.MIN_VALUE : System.currentTimeMillis() + CACHE_DURATION_MS;
-        CacheDataTexture data = exc == null ? new CacheDataTexture(skin, cloak, until) : new CacheDataTexture(exc, until);
-        if (CACHE_DURATION_MS != 0L) {
-            cache.put(username, data);
-        }
-        return data;
+    private static boolean isSame(Texture a, Texture b) {
+        return a == null ? b == null : b != null && a.url.equals(b.url) && Arrays.equals(a.digest, b.digest);
+    }
+
+    private static int weigh(CacheDataTexture data) {
+        // Rough heap size estimate: object headers, URL chars and digest
+        return 64 + weigh(data.skin) + weigh(data.cloak) + (data.exc == null ? 0 : 512);
+    }
+
+    private static int weigh(Texture texture) {
+        return texture == null ? 0 : 64 + texture.url.length() * 2 + texture.digest.length;
     }
 }
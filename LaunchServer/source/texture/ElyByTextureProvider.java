@@ -18,12 +18,12 @@ public class ElyByTextureProvider extends TextureProvider {
     }
 
     @Override
-    public synchronized Texture getSkinTexture(UUID uuid, String username) {
+    public Texture getSkinTexture(UUID uuid, String username) {
         return cacheTextureProvider.getCached(uuid, "https://authserver.ely.by/api/users/profiles/minecraft/", "http://skinsystem.ely.by/profile/", "ElyBy").skin;
     }
 
     @Override
-    public synchronized Texture getCloakTexture(UUID uuid, String username) {
+    public Texture getCloakTexture(UUID uuid, String username) {
         return cacheTextureProvider.getCached(uuid, "https://authserver.ely.by/api/users/profiles/minecraft/", "http://skinsystem.ely.by/profile/", "ElyBy").cloak;
     }
 }
@@ -18,12 +18,12 @@ public class MineSocialTextureProvider extends TextureProvider {
     }
 
     @Override
-    public synchronized Texture getSkinTexture(UUID uuid, String username) {
+    public Texture getSkinTexture(UUID uuid, String username) {
         return cacheTextureProvider.getCached(uuid, username, "https://sessionserver.minesocial.net/session/minecraft/profile/", "MineSocial").skin;
     }
 
     @Override
-    public synchronized Texture getCloakTexture(UUID uuid, String username) {
+    public Texture getCloakTexture(UUID uuid, String username) {
         return cacheTextureProvider.getCached(uuid, username, "https://sessionserver.minesocial.net/session/minecraft/profile/", "MineSocial").cloak;
     }
 }
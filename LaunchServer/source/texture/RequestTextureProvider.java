@@ -5,11 +5,25 @@ import launcher.client.PlayerProfile.Texture;
 import launcher.helper.CommonHelper;
 import launcher.helper.IOHelper;
 import launcher.helper.LogHelper;
+import launcher.helper.SecurityHelper;
+import launcher.helper.SecurityHelper.DigestAlgorithm;
+import launcher.helper.VerifyHelper;
 import launcher.serialize.config.entry.BlockConfigEntry;
+import launcher.serialize.config.entry.IntegerConfigEntry;
 import launcher.serialize.config.entry.StringConfigEntry;
+import launchserver.helpers.BoundedCache;
+import launchserver.helpers.HTTPClient;
 
-import java.io.FileNotFoundException;
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.UUID;
 
 public final class RequestTextureProvider extends TextureProvider {
@@ -18,26 +32,57 @@ public final class RequestTextureProvider extends TextureProvider {
     // Instance
     private final String skinURL;
     private final String cloakURL;
+    private final long revalidateInterval;
+    private final BoundedCache<String, CachedTexture> cache;
+    private final HTTPClient client;
 
     public RequestTextureProvider(BlockConfigEntry block) {
         super(block);
         skinURL = block.getEntryValue("skinsURL", StringConfigEntry.class);
         cloakURL = block.getEntryValue("cloaksURL", StringConfigEntry.class);
+        revalidateInterval = (block.hasEntry("cacheRevalidate") ? VerifyHelper.verifyInt(block.getEntryValue("cacheRevalidate",
+                IntegerConfigEntry.class), VerifyHelper.NOT_NEGATIVE, "cacheRevalidate can't be < 0") : 60) * 1000L;
+        cache = new BoundedCache<>(block.hasEntry("cacheSize") ? VerifyHelper.verifyInt(block.getEntryValue("cacheSize",
+                IntegerConfigEntry.class), VerifyHelper.POSITIVE, "cacheSize can't be <= 0") : 4096, 0, 0);
+        client = HTTPClient.fromConfig("Textures", block);
 
         // Verify
         IOHelper.verifyURL(getTextureURL(skinURL, ZERO_UUID, "skinUsername"));
         IOHelper.verifyURL(getTextureURL(cloakURL, ZERO_UUID, "cloakUsername"));
     }
 
-    private static Texture getTexture(String url, boolean cloak) throws IOException {
-        LogHelper.debug("Getting texture: '%s'", url);
-        try {
-            return new Texture(url, cloak);
-        } catch (FileNotFoundException ignored) {
+    private CachedTexture fetchTexture(String url, boolean cloak, CachedTexture cached, long now) throws IOException {
+        Map<String, String> headers = new HashMap<>(2);
+        if (cached != null) {
+            if (cached.etag != null) {
+                headers.put("If-None-Match", cached.etag);
+            }
+            if (cached.lastModified > 0) {
+                headers.put("If-Modified-Since", DateTimeFormatter.RFC_1123_DATE_TIME.format(
+                        Instant.ofEpochMilli(cached.lastModified).atZone(ZoneOffset.UTC)));
+            }
+        }
+        HTTPClient.Response response = client.send(new URL(url), "GET", null, null, headers);
+
+        // Texture wasn't changed since last fetch
+        if (cached != null && response.statusCode == HttpURLConnection.HTTP_NOT_MODIFIED) {
+            return new CachedTexture(cached.digest, cached.etag, cached.lastModified, now);
+        }
+
+        // Verify texture
+        if (response.statusCode == HttpURLConnection.HTTP_NOT_FOUND) {
             if (LogHelper.isDebugEnabled())
                 LogHelper.subDebug("Texture not set or not found! Maybe problem with you proxy!");
-            return null; // Simply not found
+            return new CachedTexture(null, null, 0, now); // Simply not found
         }
+        if (!response.isSuccess()) {
+            throw new IOException(String.format("Texture server returned HTTP %d: '%s'", response.statusCode, url));
+        }
+        try (ByteArrayInputStream input = new ByteArrayInputStream(response.body)) {
+            IOHelper.readTexture(input, cloak);
+        }
+        return new CachedTexture(SecurityHelper.digest(DigestAlgorithm.SHA256, response.body),
+                response.getHeader("ETag"), response.getDateHeader("Last-Modified"), now);
     }
 
     private static String getTextureURL(String url, UUID uuid, String username) {
@@ -45,6 +90,32 @@ public final class RequestTextureProvider extends TextureProvider {
                 "uuid", IOHelper.urlEncode(uuid.toString()), "hash", IOHelper.urlEncode(ClientLauncher.toHash(uuid)));
     }
 
+    private Texture getTexture(String url, boolean cloak, UUID uuid) throws IOException {
+        long now = System.currentTimeMillis();
+        CachedTexture cached = cache.get(url);
+        if (cached != null && now - cached.checked < revalidateInterval) {
+            return cached.toTexture(url);
+        }
+
+        // Fetch or revalidate texture
+        LogHelper.debug("Getting texture: '%s'", url);
+        CachedTexture fetched;
+        try {
+            fetched = fetchTexture(url, cloak, cached, now);
+        } catch (IOException e) {
+            if (cached == null) {
+                throw e;
+            }
+            LogHelper.subDebug("Texture revalidation failed, using cached: %s", e);
+            fetched = new CachedTexture(cached.digest, cached.etag, cached.lastModified, now);
+        }
+        cache.put(url, fetched);
+        if (cached != null && !Arrays.equals(cached.digest, fetched.digest)) {
+            onTextureChanged(uuid);
+        }
+        return fetched.toTexture(url);
+    }
+
     @Override
     public void close() {
         // Do nothing
@@ -52,11 +123,29 @@ public final class RequestTextureProvider extends TextureProvider {
 
     @Override
     public Texture getSkinTexture(UUID uuid, String username) throws IOException {
-        return getTexture(getTextureURL(skinURL, uuid, username), false);
+        return getTexture(getTextureURL(skinURL, uuid, username), false, uuid);
     }
 
     @Override
     public Texture getCloakTexture(UUID uuid, String username) throws IOException {
-        return getTexture(getTextureURL(cloakURL, uuid, username), true);
+        return getTexture(getTextureURL(cloakURL, uuid, username), true, uuid);
+    }
+
+    private static final class CachedTexture {
+        private final byte[] digest; // null if texture isn't set
+        private final String etag;
+        private final long lastModified;
+        private final long checked;
+
+        private CachedTexture(byte[] digest, String etag, long lastModified, long checked) {
+            this.digest = digest;
+            this.etag = etag;
+            this.lastModified = lastModified;
+            this.checked = checked;
+        }
+
+        private Texture toTexture(String url) {
+            return digest == null ? null : new Texture(url, digest);
+        }
     }
 }
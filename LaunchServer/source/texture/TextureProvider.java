@@ -14,6 +14,7 @@ import java.util.concurrent.ConcurrentHashMap;
 
 public abstract class TextureProvider extends ConfigObject implements AutoCloseable {
     private static final Map<String, Adapter<TextureProvider>> TEXTURE_PROVIDERS = new ConcurrentHashMap<>(2);
+    private static volatile Listener listener;
 
     static {
         // Default TextureProviders
@@ -49,6 +50,19 @@ public abstract class TextureProvider extends ConfigObject implements AutoClosea
                 String.format("Texture provider has been already registered: '%s'", name));
     }
 
+    @LauncherAPI
+    public static void setListener(Listener listener) {
+        TextureProvider.listener = listener;
+    }
+
+    @LauncherAPI
+    protected static void onTextureChanged(UUID uuid) {
+        Listener listener = TextureProvider.listener;
+        if (listener != null) {
+            listener.onTextureChanged(uuid);
+        }
+    }
+
     @Override
     public abstract void close() throws IOException;
 
@@ -57,4 +71,10 @@ public abstract class TextureProvider extends ConfigObject implements AutoClosea
 
     @LauncherAPI
     public abstract Texture getSkinTexture(UUID uuid, String username) throws IOException;
+
+    @FunctionalInterface
+    public interface Listener {
+        @LauncherAPI
+        void onTextureChanged(UUID uuid);
+    }
 }